@@ -23,12 +23,15 @@
 package pascal.taie.analysis.dataflow.analysis;
 
 import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.dataflow.solver.AdaptivePolicy;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
 import pascal.taie.ir.exp.LValue;
 import pascal.taie.ir.exp.RValue;
 import pascal.taie.ir.exp.Var;
 import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.Indexer;
 
 import java.util.List;
 import java.util.Optional;
@@ -41,8 +44,14 @@ public class LiveVariableAnalysis extends
 
     public static final String ID = "livevar";
 
+    /**
+     * Decides whether the facts of a method are represented by bit vectors.
+     */
+    private final AdaptivePolicy policy;
+
     public LiveVariableAnalysis(AnalysisConfig config) {
         super(config);
+        policy = AdaptivePolicy.from(getOptions());
     }
 
     @Override
@@ -54,7 +63,7 @@ public class LiveVariableAnalysis extends
     public SetFact<Var> newBoundaryFact(CFG<Stmt> cfg) {
         // TODO - finish me
         //IN[exit]为空
-        return new SetFact<>();
+        return newInitialFact(cfg);
     }
 
     @Override
@@ -64,6 +73,14 @@ public class LiveVariableAnalysis extends
         return new SetFact<>();
     }
 
+    @Override
+    public SetFact<Var> newInitialFact(CFG<Stmt> cfg) {
+        IR ir = cfg.getIR();
+        return policy.useBitSet(ir.getVars().size()) ?
+                SetFact.newBitSetFact(new VarIndexer(ir)) :
+                newInitialFact();
+    }
+
     @Override
     public void meetInto(SetFact<Var> fact, SetFact<Var> target) {
         // TODO - finish me
@@ -110,4 +127,20 @@ public class LiveVariableAnalysis extends
         return !in.equals(beforeIn);
 
     }
+
+    /**
+     * Indexes the variables of a method by their indexes in the IR.
+     */
+    private record VarIndexer(IR ir) implements Indexer<Var> {
+
+        @Override
+        public int getIndex(Var var) {
+            return var.getIndex();
+        }
+
+        @Override
+        public Var getObject(int index) {
+            return ir.getVar(index);
+        }
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.util.AnalysisException;
+
+import java.util.List;
+
+/**
+ * Product of several data-flow analyses of the same direction.
+ * Each fact of this analysis is a {@link ProductFact} whose i-th component
+ * is the fact of the i-th analysis, so that all the analyses can be
+ * solved in a single traversal of the CFG.
+ *
+ * @param <Node> type of CFG nodes
+ */
+public class ProductAnalysis<Node> implements DataflowAnalysis<Node, ProductFact> {
+
+    private final List<DataflowAnalysis<Node, Object>> analyses;
+
+    private final boolean isForward;
+
+    @SuppressWarnings("unchecked")
+    public ProductAnalysis(List<? extends DataflowAnalysis<Node, ?>> analyses) {
+        if (analyses.isEmpty()) {
+            throw new AnalysisException("ProductAnalysis requires at least one analysis");
+        }
+        this.analyses = List.copyOf((List<DataflowAnalysis<Node, Object>>) analyses);
+        this.isForward = analyses.get(0).isForward();
+        for (DataflowAnalysis<Node, ?> analysis : analyses) {
+            if (analysis.isForward() != isForward) {
+                throw new AnalysisException(
+                        "Cannot fuse analyses of different directions: " + analyses);
+            }
+        }
+    }
+
+    /**
+     * @return the number of analyses in this product.
+     */
+    public int size() {
+        return analyses.size();
+    }
+
+    /**
+     * @return the i-th analysis in this product.
+     */
+    public DataflowAnalysis<Node, ?> get(int i) {
+        return analyses.get(i);
+    }
+
+    @Override
+    public boolean isForward() {
+        return isForward;
+    }
+
+    @Override
+    public ProductFact newBoundaryFact(CFG<Node> cfg) {
+        ProductFact fact = new ProductFact(analyses.size());
+        for (int i = 0; i < analyses.size(); ++i) {
+            fact.set(i, analyses.get(i).newBoundaryFact(cfg));
+        }
+        return fact;
+    }
+
+    @Override
+    public ProductFact newInitialFact() {
+        ProductFact fact = new ProductFact(analyses.size());
+        for (int i = 0; i < analyses.size(); ++i) {
+            fact.set(i, analyses.get(i).newInitialFact());
+        }
+        return fact;
+    }
+
+    @Override
+    public ProductFact newInitialFact(CFG<Node> cfg) {
+        ProductFact fact = new ProductFact(analyses.size());
+        for (int i = 0; i < analyses.size(); ++i) {
+            fact.set(i, analyses.get(i).newInitialFact(cfg));
+        }
+        return fact;
+    }
+
+    @Override
+    public void meetInto(ProductFact fact, ProductFact target) {
+        for (int i = 0; i < analyses.size(); ++i) {
+            analyses.get(i).meetInto(fact.get(i), target.get(i));
+        }
+    }
+
+    /**
+     * Applies the transfer function of every analysis on its own component.
+     *
+     * @return true if any component changed, otherwise false.
+     */
+    @Override
+    public boolean transferNode(Node node, ProductFact in, ProductFact out) {
+        boolean changed = false;
+        for (int i = 0; i < analyses.size(); ++i) {
+            changed |= analyses.get(i).transferNode(node,
+                    component(in, i), component(out, i));
+        }
+        return changed;
+    }
+
+    /**
+     * Some solvers leave the fact of boundary node absent,
+     * thus the absence is passed to each component as is.
+     */
+    private static Object component(ProductFact fact, int i) {
+        return fact == null ? null : fact.get(i);
+    }
+
+    @Override
+    public boolean needTransferEdge(Edge<Node> edge) {
+        for (DataflowAnalysis<Node, Object> analysis : analyses) {
+            if (analysis.needTransferEdge(edge)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Components whose analyses do not need transfer for the given edge
+     * are shared with {@code nodeFact}.
+     */
+    @Override
+    public ProductFact transferEdge(Edge<Node> edge, ProductFact nodeFact) {
+        ProductFact result = new ProductFact(analyses.size());
+        for (int i = 0; i < analyses.size(); ++i) {
+            DataflowAnalysis<Node, Object> analysis = analyses.get(i);
+            result.set(i, analysis.needTransferEdge(edge) ?
+                    analysis.transferEdge(edge, nodeFact.get(i)) :
+                    nodeFact.get(i));
+        }
+        return result;
+    }
+}
@@ -22,7 +22,9 @@
 
 package pascal.taie.analysis.dataflow.fact;
 
+import pascal.taie.util.Indexer;
 import pascal.taie.util.collection.CollectionUtils;
+import pascal.taie.util.collection.IndexerBitSet;
 import pascal.taie.util.collection.Sets;
 
 import java.util.Collection;
@@ -48,6 +50,21 @@ public class SetFact<E> {
         this(Collections.emptySet());
     }
 
+    private SetFact(IndexerBitSet<E> set) {
+        this.set = set;
+    }
+
+    /**
+     * Creates an empty fact represented by a bit vector, which is more
+     * compact and faster than the default representation when the
+     * elements come from a large and dense universe.
+     *
+     * @param indexer maps elements to bit indexes
+     */
+    public static <E> SetFact<E> newBitSetFact(Indexer<E> indexer) {
+        return new SetFact<>(new IndexerBitSet<>(indexer));
+    }
+
     /**
      * @return true if this set contains the specified element, otherwise false.
      */
@@ -131,6 +148,9 @@ public class SetFact<E> {
      * Creates and returns a copy of this fact.
      */
     public SetFact<E> copy() {
+        if (set instanceof IndexerBitSet<E> bitSet) {
+            return new SetFact<>(bitSet.copy());
+        }
         return new SetFact<>(this.set);
     }
 
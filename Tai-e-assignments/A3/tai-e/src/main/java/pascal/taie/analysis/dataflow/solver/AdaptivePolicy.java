@@ -0,0 +1,194 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.config.AnalysisOptions;
+import pascal.taie.config.ConfigException;
+
+import java.util.Locale;
+
+/**
+ * Policy that chooses the solving strategy and the fact representation
+ * of a data-flow analysis for each method, according to the size of
+ * its CFG and the number of its variables.
+ * <p>
+ * The policy is configured by the options of the analysis:
+ * <ul>
+ *     <li>{@code solver}: worklist (default) | iterative | ordered |
+ *     component | adaptive</li>
+ *     <li>{@code fact}: hybrid (default) | bitset | adaptive</li>
+ *     <li>{@code small-cfg-size}: CFGs up to this size (and acyclic)
+ *     are solved by round-robin iteration</li>
+ *     <li>{@code large-cfg-size}: CFGs larger than this size are solved
+ *     component by component</li>
+ *     <li>{@code bitset-vars}: methods with at least this number of
+ *     variables use bit-vector facts</li>
+ * </ul>
+ * The size options only take effect in adaptive mode.
+ */
+public class AdaptivePolicy {
+
+    /**
+     * Solving strategies.
+     */
+    public enum SolverKind {
+        /**
+         * FIFO work-list over all nodes.
+         */
+        WORKLIST,
+        /**
+         * Round-robin iteration in reverse post-order.
+         */
+        ITERATIVE,
+        /**
+         * Work-list prioritized by reverse post-order.
+         */
+        ORDERED,
+        /**
+         * Solves strongly-connected components one by one
+         * in topological order.
+         */
+        COMPONENT,
+        /**
+         * Chooses one of the above for each CFG.
+         */
+        ADAPTIVE,
+    }
+
+    /**
+     * Representations of set-like facts.
+     */
+    public enum FactKind {
+        /**
+         * Hybrid sets, which are inline arrays for few elements,
+         * and hash sets for more elements.
+         */
+        HYBRID,
+        /**
+         * Bit vectors indexed by variables.
+         */
+        BITSET,
+        /**
+         * Chooses one of the above for each method.
+         */
+        ADAPTIVE,
+    }
+
+    private static final int DEFAULT_SMALL_CFG_SIZE = 32;
+
+    private static final int DEFAULT_LARGE_CFG_SIZE = 2000;
+
+    private static final int DEFAULT_BITSET_VARS = 64;
+
+    private final SolverKind solverKind;
+
+    private final FactKind factKind;
+
+    private final int smallCFGSize;
+
+    private final int largeCFGSize;
+
+    private final int bitSetVars;
+
+    public AdaptivePolicy(SolverKind solverKind, FactKind factKind,
+                          int smallCFGSize, int largeCFGSize, int bitSetVars) {
+        this.solverKind = solverKind;
+        this.factKind = factKind;
+        this.smallCFGSize = smallCFGSize;
+        this.largeCFGSize = largeCFGSize;
+        this.bitSetVars = bitSetVars;
+    }
+
+    /**
+     * Creates a policy from the options of an analysis. Absent options
+     * are given default values, so that analyses which are not configured
+     * keep using the work-list solver and hybrid facts.
+     */
+    public static AdaptivePolicy from(AnalysisOptions options) {
+        return new AdaptivePolicy(
+                parseKind(SolverKind.class, options.getString("solver"),
+                        SolverKind.WORKLIST),
+                parseKind(FactKind.class, options.getString("fact"),
+                        FactKind.HYBRID),
+                parseInt(options, "small-cfg-size", DEFAULT_SMALL_CFG_SIZE),
+                parseInt(options, "large-cfg-size", DEFAULT_LARGE_CFG_SIZE),
+                parseInt(options, "bitset-vars", DEFAULT_BITSET_VARS));
+    }
+
+    private static <E extends Enum<E>> E parseKind(
+            Class<E> kindClass, String value, E defaultKind) {
+        if (value == null) {
+            return defaultKind;
+        }
+        try {
+            return Enum.valueOf(kindClass, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ConfigException("Unknown " +
+                    kindClass.getSimpleName() + ": " + value);
+        }
+    }
+
+    private static int parseInt(AnalysisOptions options, String key,
+                                int defaultValue) {
+        Object value = options.get(key);
+        if (value == null) {
+            return defaultValue;
+        } else if (value instanceof Number n) {
+            return n.intValue();
+        } else {
+            try {
+                return Integer.parseInt(value.toString());
+            } catch (NumberFormatException e) {
+                throw new ConfigException("Invalid value of " + key + ": " + value);
+            }
+        }
+    }
+
+    public SolverKind getSolverKind() {
+        return solverKind;
+    }
+
+    public FactKind getFactKind() {
+        return factKind;
+    }
+
+    public int getSmallCFGSize() {
+        return smallCFGSize;
+    }
+
+    public int getLargeCFGSize() {
+        return largeCFGSize;
+    }
+
+    /**
+     * @return true if the facts of a method with given number of
+     * variables should be represented by bit vectors, otherwise false.
+     */
+    public boolean useBitSet(int numberOfVars) {
+        return switch (factKind) {
+            case HYBRID -> false;
+            case BITSET -> true;
+            case ADAPTIVE -> numberOfVars >= bitSetVars;
+        };
+    }
+}
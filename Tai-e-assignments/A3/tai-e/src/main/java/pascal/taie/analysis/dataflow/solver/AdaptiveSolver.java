@@ -0,0 +1,77 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+/**
+ * Solver that chooses the solving strategy for each CFG by its shape:
+ * <ul>
+ *     <li>small acyclic CFGs are solved by {@link IterativeSolver};</li>
+ *     <li>CFGs up to the large size are solved by
+ *     {@link OrderedWorkListSolver};</li>
+ *     <li>larger CFGs are solved by {@link ComponentSolver}.</li>
+ * </ul>
+ * The thresholds are given by {@link AdaptivePolicy}.
+ */
+class AdaptiveSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    private final IterativeSolver<Node, Fact> iterativeSolver;
+
+    private final OrderedWorkListSolver<Node, Fact> orderedSolver;
+
+    private final ComponentSolver<Node, Fact> componentSolver;
+
+    private final AdaptivePolicy policy;
+
+    AdaptiveSolver(DataflowAnalysis<Node, Fact> analysis, AdaptivePolicy policy) {
+        super(analysis);
+        this.iterativeSolver = new IterativeSolver<>(analysis);
+        this.orderedSolver = new OrderedWorkListSolver<>(analysis);
+        this.componentSolver = new ComponentSolver<>(analysis);
+        this.policy = policy;
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        select(cfg).doSolveForward(cfg, result);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        select(cfg).doSolveBackward(cfg, result);
+    }
+
+    private Solver<Node, Fact> select(CFG<Node> cfg) {
+        int size = cfg.getNumberOfNodes();
+        if (size <= policy.getSmallCFGSize() && CFGOrders.isAcyclic(cfg)) {
+            return iterativeSolver;
+        } else if (size <= policy.getLargeCFGSize()) {
+            return orderedSolver;
+        } else {
+            return componentSolver;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Computes node orders of CFGs for the solvers. All traversals are
+ * iterative, so that they do not overflow the stack on large CFGs.
+ * For backward analyses, the orders are computed on the reversed CFG.
+ */
+final class CFGOrders {
+
+    private CFGOrders() {
+    }
+
+    /**
+     * @return the nodes of given CFG in reverse post-order, starting from
+     * the entry (exit) node for forward (backward) direction.
+     * Nodes that are unreachable from the boundary node are placed after
+     * the reachable ones.
+     */
+    static <N> List<N> reversePostOrder(CFG<N> cfg, boolean forward) {
+        Function<N, Set<N>> succs = succsFunction(cfg, forward);
+        List<N> postOrder = new ArrayList<>(cfg.getNumberOfNodes());
+        Set<N> visited = Sets.newSet(cfg.getNumberOfNodes());
+        N root = forward ? cfg.getEntry() : cfg.getExit();
+        postOrder(root, succs, visited, postOrder);
+        List<N> unreached = new ArrayList<>();
+        for (N node : cfg) {
+            if (!visited.contains(node)) {
+                postOrder(node, succs, visited, unreached);
+            }
+        }
+        Collections.reverse(postOrder);
+        Collections.reverse(unreached);
+        postOrder.addAll(unreached);
+        return postOrder;
+    }
+
+    private static <N> void postOrder(N root, Function<N, Set<N>> succs,
+                                      Set<N> visited, List<N> result) {
+        if (!visited.add(root)) {
+            return;
+        }
+        Deque<N> nodes = new ArrayDeque<>();
+        Deque<Iterator<N>> iterators = new ArrayDeque<>();
+        nodes.push(root);
+        iterators.push(succs.apply(root).iterator());
+        while (!nodes.isEmpty()) {
+            Iterator<N> it = iterators.peek();
+            if (it.hasNext()) {
+                N succ = it.next();
+                if (visited.add(succ)) {
+                    nodes.push(succ);
+                    iterators.push(succs.apply(succ).iterator());
+                }
+            } else {
+                result.add(nodes.pop());
+                iterators.pop();
+            }
+        }
+    }
+
+    /**
+     * @return a map from each node in given order to its position.
+     */
+    static <N> Map<N, Integer> indexOf(List<N> order) {
+        Map<N, Integer> index = Maps.newMap(order.size());
+        for (int i = 0; i < order.size(); ++i) {
+            index.put(order.get(i), i);
+        }
+        return index;
+    }
+
+    /**
+     * @return true if given CFG has no cycles, otherwise false.
+     */
+    static <N> boolean isAcyclic(CFG<N> cfg) {
+        Map<N, Integer> index = indexOf(reversePostOrder(cfg, true));
+        for (N node : cfg) {
+            int i = index.get(node);
+            for (N succ : cfg.getSuccsOf(node)) {
+                // in reverse post-order, only back edges go backward
+                if (index.get(succ) <= i) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Computes the strongly-connected components of given CFG
+     * with an iterative version of Tarjan's algorithm.
+     *
+     * @return the components in topological order of the flow direction,
+     * and the nodes of each component are in reverse post-order.
+     */
+    static <N> List<List<N>> topologicalComponents(CFG<N> cfg, boolean forward) {
+        Function<N, Set<N>> succs = succsFunction(cfg, forward);
+        List<N> rpo = reversePostOrder(cfg, forward);
+        Map<N, Integer> rpoIndex = indexOf(rpo);
+        Map<N, Integer> index = Maps.newMap(rpo.size());
+        Map<N, Integer> low = Maps.newMap(rpo.size());
+        Set<N> onStack = Sets.newSet(rpo.size());
+        Deque<N> stack = new ArrayDeque<>();
+        List<List<N>> components = new ArrayList<>();
+        Deque<N> nodes = new ArrayDeque<>();
+        Deque<Iterator<N>> iterators = new ArrayDeque<>();
+        for (N root : rpo) {
+            if (index.containsKey(root)) {
+                continue;
+            }
+            visit(root, succs, index, low, onStack, stack, nodes, iterators);
+            while (!nodes.isEmpty()) {
+                N node = nodes.peek();
+                Iterator<N> it = iterators.peek();
+                if (it.hasNext()) {
+                    N succ = it.next();
+                    if (!index.containsKey(succ)) {
+                        visit(succ, succs, index, low, onStack, stack, nodes, iterators);
+                    } else if (onStack.contains(succ)) {
+                        low.put(node, Math.min(low.get(node), index.get(succ)));
+                    }
+                } else {
+                    nodes.pop();
+                    iterators.pop();
+                    if (low.get(node).equals(index.get(node))) {
+                        List<N> component = new ArrayList<>();
+                        N member;
+                        do {
+                            member = stack.pop();
+                            onStack.remove(member);
+                            component.add(member);
+                        } while (member != node);
+                        component.sort((n1, n2) ->
+                                Integer.compare(rpoIndex.get(n1), rpoIndex.get(n2)));
+                        components.add(component);
+                    }
+                    if (!nodes.isEmpty()) {
+                        N parent = nodes.peek();
+                        low.put(parent, Math.min(low.get(parent), low.get(node)));
+                    }
+                }
+            }
+        }
+        // Tarjan's algorithm finds components in reverse topological order
+        Collections.reverse(components);
+        return components;
+    }
+
+    private static <N> void visit(N node, Function<N, Set<N>> succs,
+                                  Map<N, Integer> index, Map<N, Integer> low,
+                                  Set<N> onStack, Deque<N> stack,
+                                  Deque<N> nodes, Deque<Iterator<N>> iterators) {
+        int i = index.size();
+        index.put(node, i);
+        low.put(node, i);
+        stack.push(node);
+        onStack.add(node);
+        nodes.push(node);
+        iterators.push(succs.apply(node).iterator());
+    }
+
+    private static <N> Function<N, Set<N>> succsFunction(CFG<N> cfg, boolean forward) {
+        return forward ? cfg::getSuccsOf : cfg::getPredsOf;
+    }
+}
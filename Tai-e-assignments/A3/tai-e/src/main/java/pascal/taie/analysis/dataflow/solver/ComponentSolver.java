@@ -0,0 +1,65 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Sets;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Solver that decomposes the CFG into strongly-connected components and
+ * solves them one by one in topological order of the flow direction.
+ * Each component is iterated to a local fixed point before its successors
+ * are visited, so loops are stabilized from the inside out and the
+ * work-list of a huge CFG never grows beyond a single component.
+ */
+class ComponentSolver<Node, Fact> extends OrderedWorkListSolver<Node, Fact> {
+
+    ComponentSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solveComponents(cfg, result, true);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        solveComponents(cfg, result, false);
+    }
+
+    private void solveComponents(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+                                 boolean forward) {
+        Map<Node, Integer> order = CFGOrders.indexOf(
+                CFGOrders.reversePostOrder(cfg, forward));
+        for (List<Node> component :
+                CFGOrders.topologicalComponents(cfg, forward)) {
+            solve(cfg, result, forward, Sets.newHybridSet(component), order);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.AbstractDataflowAnalysis;
+import pascal.taie.analysis.dataflow.analysis.ProductAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.ProductFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.IR;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Solves several data-flow analyses of the same direction in one traversal
+ * of the CFG, and then splits the combined result back for each analysis.
+ * Compared to solving the analyses one by one, this shares the CFG
+ * traversal, the work-list and the result maps among all the analyses.
+ *
+ * @param <Node> type of CFG nodes
+ */
+public class FusedSolver<Node> {
+
+    private final List<AbstractDataflowAnalysis<Node, ?>> analyses;
+
+    private final ProductAnalysis<Node> product;
+
+    private final Solver<Node, ProductFact> solver;
+
+    /**
+     * @param analyses the analyses to be fused, which must have
+     *                 the same direction
+     */
+    public FusedSolver(List<? extends AbstractDataflowAnalysis<Node, ?>> analyses) {
+        this.analyses = List.copyOf(analyses);
+        this.product = new ProductAnalysis<>(analyses);
+        this.solver = Solver.makeSolver(product);
+    }
+
+    /**
+     * Solves all the fused analyses on the given CFG.
+     *
+     * @return a map from ID of each analysis to its result.
+     */
+    public Map<String, DataflowResult<Node, ?>> solve(CFG<Node> cfg) {
+        DataflowResult<Node, ProductFact> fused = solver.solve(cfg);
+        Map<String, DataflowResult<Node, ?>> results = new LinkedHashMap<>();
+        for (int i = 0; i < analyses.size(); ++i) {
+            results.put(analyses.get(i).getId(), split(cfg, fused, i));
+        }
+        return results;
+    }
+
+    /**
+     * Solves all the fused analyses on the CFG of the given IR, and stores
+     * the result of each analysis in the IR under the analysis ID,
+     * just as if the analyses were executed separately.
+     */
+    public void solve(IR ir) {
+        CFG<Node> cfg = ir.getResult(CFGBuilder.ID);
+        solve(cfg).forEach(ir::storeResult);
+    }
+
+    /**
+     * Extracts the i-th component of the fused result.
+     */
+    private DataflowResult<Node, Object> split(
+            CFG<Node> cfg, DataflowResult<Node, ProductFact> fused, int i) {
+        DataflowResult<Node, Object> result = new DataflowResult<>();
+        for (Node node : cfg) {
+            ProductFact in = fused.getInFact(node);
+            if (in != null) {
+                result.setInFact(node, in.get(i));
+            }
+            ProductFact out = fused.getOutFact(node);
+            if (out != null) {
+                result.setOutFact(node, out.get(i));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+
+import java.util.List;
+
+/**
+ * Round-robin solver, which repeatedly visits all nodes in reverse
+ * post-order until no fact changes. For acyclic CFGs it converges in
+ * a single pass (plus one pass to confirm), and it avoids the overhead
+ * of maintaining a work-list, which makes it preferable for small CFGs.
+ */
+class IterativeSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    IterativeSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = CFGOrders.reversePostOrder(cfg, true);
+        boolean changed;
+        do {
+            changed = false;
+            for (Node node : order) {
+                if (!cfg.isEntry(node)) {
+                    changed |= updateForward(cfg, node, result);
+                }
+            }
+        } while (changed);
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = CFGOrders.reversePostOrder(cfg, false);
+        boolean changed;
+        do {
+            changed = false;
+            for (Node node : order) {
+                if (!cfg.isExit(node)) {
+                    changed |= updateBackward(cfg, node, result);
+                }
+            }
+        } while (changed);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Work-list solver which always picks the node that comes first in
+ * reverse post-order, so that the facts of the predecessors (successors
+ * for backward analyses) of a node are usually stable when the node is
+ * processed. Each node is in the work-list at most once.
+ */
+class OrderedWorkListSolver<Node, Fact> extends Solver<Node, Fact> {
+
+    OrderedWorkListSolver(DataflowAnalysis<Node, Fact> analysis) {
+        super(analysis);
+    }
+
+    @Override
+    protected void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = CFGOrders.reversePostOrder(cfg, true);
+        solve(cfg, result, true, cfg.getNodes(), CFGOrders.indexOf(order));
+    }
+
+    @Override
+    protected void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
+        List<Node> order = CFGOrders.reversePostOrder(cfg, false);
+        solve(cfg, result, false, cfg.getNodes(), CFGOrders.indexOf(order));
+    }
+
+    /**
+     * Solves the nodes in given scope to a fixed point. Nodes out of
+     * the scope are regarded as stable, i.e., they are neither processed
+     * nor added to the work-list.
+     *
+     * @param scope the nodes to be solved
+     * @param order the reverse post-order index of the nodes
+     */
+    void solve(CFG<Node> cfg, DataflowResult<Node, Fact> result,
+               boolean forward, Set<Node> scope, Map<Node, Integer> order) {
+        Queue<Node> workList = new PriorityQueue<>(
+                Comparator.comparingInt(order::get));
+        Set<Node> inWorkList = Sets.newHybridSet();
+        for (Node node : scope) {
+            if (!isBoundary(cfg, node, forward)) {
+                workList.add(node);
+                inWorkList.add(node);
+            }
+        }
+        while (!workList.isEmpty()) {
+            Node node = workList.poll();
+            inWorkList.remove(node);
+            boolean changed = forward ?
+                    updateForward(cfg, node, result) :
+                    updateBackward(cfg, node, result);
+            if (changed) {
+                Set<Node> next = forward ?
+                        cfg.getSuccsOf(node) : cfg.getPredsOf(node);
+                for (Node n : next) {
+                    if (scope.contains(n) && !isBoundary(cfg, n, forward)
+                            && inWorkList.add(n)) {
+                        workList.add(n);
+                    }
+                }
+            }
+        }
+    }
+
+    private static <Node> boolean isBoundary(
+            CFG<Node> cfg, Node node, boolean forward) {
+        return forward ? cfg.isEntry(node) : cfg.isExit(node);
+    }
+}
@@ -22,9 +22,11 @@
 
 package pascal.taie.analysis.dataflow.solver;
 
+import pascal.taie.analysis.Analysis;
 import pascal.taie.analysis.dataflow.analysis.DataflowAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
 
 /**
  * Base class for data-flow analysis solver, which provides common
@@ -43,12 +45,31 @@ public abstract class Solver<Node, Fact> {
 
     /**
      * Static factory method to create a new solver for given analysis.
+     * If the analysis is configured with an {@link AdaptivePolicy},
+     * the solver is selected according to the policy.
      */
     public static <Node, Fact> Solver<Node, Fact> makeSolver(
             DataflowAnalysis<Node, Fact> analysis) {
+        if (analysis instanceof Analysis a) {
+            return makeSolver(analysis, AdaptivePolicy.from(a.getOptions()));
+        }
         return new WorkListSolver<>(analysis);
     }
 
+    /**
+     * Creates a new solver for given analysis according to given policy.
+     */
+    public static <Node, Fact> Solver<Node, Fact> makeSolver(
+            DataflowAnalysis<Node, Fact> analysis, AdaptivePolicy policy) {
+        return switch (policy.getSolverKind()) {
+            case WORKLIST -> new WorkListSolver<>(analysis);
+            case ITERATIVE -> new IterativeSolver<>(analysis);
+            case ORDERED -> new OrderedWorkListSolver<>(analysis);
+            case COMPONENT -> new ComponentSolver<>(analysis);
+            case ADAPTIVE -> new AdaptiveSolver<>(analysis, policy);
+        };
+    }
+
     /**
      * Starts this solver on the given CFG.
      *
@@ -78,13 +99,13 @@ public abstract class Solver<Node, Fact> {
 
     protected void initializeForward(CFG<Node> cfg, DataflowResult<Node, Fact> result) {
         Node entry = cfg.getEntry();
-        result.setInFact(entry, analysis.newInitialFact());
+        result.setInFact(entry, analysis.newInitialFact(cfg));
         result.setOutFact(entry, analysis.newBoundaryFact(cfg));
         for(Node node: cfg.getNodes()){
             if(node.equals(entry))
                 continue;
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
+            result.setInFact(node, analysis.newInitialFact(cfg));
+            result.setOutFact(node, analysis.newInitialFact(cfg));
         }
     }
 
@@ -99,8 +120,8 @@ public abstract class Solver<Node, Fact> {
             //跳过exit节点
             if(node.equals(exit))
                 continue;
-            result.setInFact(node, analysis.newInitialFact());
-            result.setOutFact(node, analysis.newInitialFact());
+            result.setInFact(node, analysis.newInitialFact(cfg));
+            result.setOutFact(node, analysis.newInitialFact(cfg));
         }
     }
 
@@ -118,4 +139,38 @@ public abstract class Solver<Node, Fact> {
     protected abstract void doSolveForward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
 
     protected abstract void doSolveBackward(CFG<Node> cfg, DataflowResult<Node, Fact> result);
+
+    /**
+     * Meets the (edge-transferred) OUT facts of the predecessors of given
+     * node into its IN fact, and then applies the node transfer function.
+     *
+     * @return true if the OUT fact of the node changed, otherwise false.
+     */
+    protected boolean updateForward(CFG<Node> cfg, Node node,
+                                    DataflowResult<Node, Fact> result) {
+        Fact in = result.getInFact(node);
+        for (Edge<Node> edge : cfg.getInEdgesOf(node)) {
+            Fact predOut = result.getOutFact(edge.getSource());
+            if (analysis.needTransferEdge(edge)) {
+                predOut = analysis.transferEdge(edge, predOut);
+            }
+            analysis.meetInto(predOut, in);
+        }
+        return analysis.transferNode(node, in, result.getOutFact(node));
+    }
+
+    /**
+     * Meets the IN facts of the successors of given node into its OUT fact,
+     * and then applies the node transfer function.
+     *
+     * @return true if the IN fact of the node changed, otherwise false.
+     */
+    protected boolean updateBackward(CFG<Node> cfg, Node node,
+                                     DataflowResult<Node, Fact> result) {
+        Fact out = result.getOutFact(node);
+        for (Node succ : cfg.getSuccsOf(node)) {
+            analysis.meetInto(result.getInFact(succ), out);
+        }
+        return analysis.transferNode(node, result.getInFact(node), out);
+    }
 }
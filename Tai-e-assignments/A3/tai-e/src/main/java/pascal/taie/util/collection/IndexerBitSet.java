@@ -0,0 +1,200 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.collection;
+
+import pascal.taie.util.Indexer;
+
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Set implementation backed by a {@link BitSet}, whose elements are
+ * mapped to bit indexes by an {@link Indexer}. Bulk operations between
+ * two sets that share the same indexer are performed on the bit vectors
+ * directly, which makes this set suitable for dense universes,
+ * e.g., the variables of a large method.
+ *
+ * @param <E> type of elements
+ */
+public class IndexerBitSet<E> extends AbstractSet<E> {
+
+    private final Indexer<E> indexer;
+
+    private final BitSet bits;
+
+    public IndexerBitSet(Indexer<E> indexer) {
+        this(indexer, new BitSet());
+    }
+
+    private IndexerBitSet(Indexer<E> indexer, BitSet bits) {
+        this.indexer = indexer;
+        this.bits = bits;
+    }
+
+    /**
+     * @return a copy of this set, which shares the indexer with this set.
+     */
+    public IndexerBitSet<E> copy() {
+        return new IndexerBitSet<>(indexer, (BitSet) bits.clone());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        return bits.get(indexer.getIndex((E) o));
+    }
+
+    @Override
+    public boolean add(E e) {
+        int index = indexer.getIndex(e);
+        if (bits.get(index)) {
+            return false;
+        }
+        bits.set(index);
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object o) {
+        int index = indexer.getIndex((E) o);
+        if (!bits.get(index)) {
+            return false;
+        }
+        bits.clear(index);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        BitSet other = sameIndexerBits(c);
+        if (other != null) {
+            int oldSize = bits.cardinality();
+            bits.or(other);
+            return bits.cardinality() != oldSize;
+        }
+        return super.addAll(c);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> c) {
+        BitSet other = sameIndexerBits(c);
+        if (other != null) {
+            int oldSize = bits.cardinality();
+            bits.and(other);
+            return bits.cardinality() != oldSize;
+        }
+        return super.retainAll(c);
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        BitSet other = sameIndexerBits(c);
+        if (other != null) {
+            int oldSize = bits.cardinality();
+            bits.andNot(other);
+            return bits.cardinality() != oldSize;
+        }
+        return super.removeAll(c);
+    }
+
+    /**
+     * @return the bit vector of given collection if it is an
+     * {@link IndexerBitSet} with the same indexer as this set,
+     * otherwise null.
+     */
+    private BitSet sameIndexerBits(Collection<?> c) {
+        if (c instanceof IndexerBitSet<?> other &&
+                indexer.equals(other.indexer)) {
+            return other.bits;
+        }
+        return null;
+    }
+
+    @Override
+    public void clear() {
+        bits.clear();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return bits.cardinality();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+
+            private int next = bits.nextSetBit(0);
+
+            private int last = -1;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public E next() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = bits.nextSetBit(next + 1);
+                return indexer.getObject(last);
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) {
+                    throw new IllegalStateException();
+                }
+                bits.clear(last);
+                last = -1;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        BitSet other = o instanceof Collection<?> c ? sameIndexerBits(c) : null;
+        if (other != null) {
+            return bits.equals(other);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        // keep consistent with other Set implementations
+        return super.hashCode();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+
+/**
+ * Runs the test cases of {@link DeadCodeTest} with the solvers and fact
+ * representations chosen by options of live variable analysis,
+ * which should produce the same results.
+ */
+public class AdaptiveSolverTest {
+
+    private static final String[] INPUTS = {
+            "ControlFlowUnreachable", "UnreachableIfBranch",
+            "UnreachableSwitchBranch", "DeadAssignment", "Loops"
+    };
+
+    private static void test(String livevarOptions) {
+        for (String input : INPUTS) {
+            Tests.test(input, "src/test/resources/dataflow/deadcode/",
+                    DeadCodeDetection.ID,
+                    "-a", "livevar=strongly:false;" + livevarOptions,
+                    "-a", "constprop=edge-refine:false");
+        }
+    }
+
+    @Test
+    public void testAdaptive() {
+        test("solver:adaptive;fact:adaptive");
+    }
+
+    @Test
+    public void testAdaptiveWithSmallThresholds() {
+        // selects the component solver and bit-vector facts for all but
+        // trivial methods
+        test("solver:adaptive;fact:adaptive;" +
+                "small-cfg-size:0;large-cfg-size:4;bitset-vars:1");
+    }
+
+    @Test
+    public void testIterativeSolver() {
+        test("solver:iterative");
+    }
+
+    @Test
+    public void testOrderedSolver() {
+        test("solver:ordered");
+    }
+
+    @Test
+    public void testComponentSolverWithBitSetFacts() {
+        test("solver:component;fact:bitset");
+    }
+}
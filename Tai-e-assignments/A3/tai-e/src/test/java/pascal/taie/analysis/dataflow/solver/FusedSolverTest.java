@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.solver;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.DeadCodeDetection;
+import pascal.taie.analysis.dataflow.analysis.LiveVariableAnalysis;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.fact.SetFact;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fuses live variable analyses and constant propagations on the dead-code
+ * test cases, and checks that each fused result equals the result of
+ * solving the analysis alone.
+ */
+public class FusedSolverTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/deadcode/";
+
+    private static final String[] INPUTS = {
+            "ControlFlowUnreachable", "UnreachableIfBranch",
+            "UnreachableSwitchBranch", "DeadAssignment", "Loops"
+    };
+
+    private static final String BITSET_LIVEVAR = "bitset-livevar";
+
+    private static final String CONSTPROP_COPY = "constprop-copy";
+
+    @Test
+    public void testBackward() {
+        for (String input : INPUTS) {
+            runDeadCode(input);
+            LiveVariableAnalysis livevar = new LiveVariableAnalysis(
+                    new AnalysisConfig(LiveVariableAnalysis.ID));
+            LiveVariableAnalysis bitSetLivevar = new LiveVariableAnalysis(
+                    new AnalysisConfig(BITSET_LIVEVAR, "fact", "bitset"));
+            FusedSolver<Stmt> solver = new FusedSolver<>(List.of(livevar, bitSetLivevar));
+            forEachIR(ir -> {
+                CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+                Map<String, DataflowResult<Stmt, ?>> results = solver.solve(cfg);
+                assertSameResult(cfg, ir.getResult(LiveVariableAnalysis.ID),
+                        results.get(LiveVariableAnalysis.ID), FusedSolverTest::toSet);
+                assertSameResult(cfg, Solver.makeSolver(bitSetLivevar).solve(cfg),
+                        results.get(BITSET_LIVEVAR), FusedSolverTest::toSet);
+            });
+        }
+    }
+
+    @Test
+    public void testForward() {
+        for (String input : INPUTS) {
+            runDeadCode(input);
+            ConstantPropagation constprop = new ConstantPropagation(
+                    new AnalysisConfig(ConstantPropagation.ID, "edge-refine", false));
+            ConstantPropagation copy = new ConstantPropagation(
+                    new AnalysisConfig(CONSTPROP_COPY, "edge-refine", false));
+            FusedSolver<Stmt> solver = new FusedSolver<>(List.of(constprop, copy));
+            forEachIR(ir -> {
+                CFG<Stmt> cfg = ir.getResult(CFGBuilder.ID);
+                Map<String, DataflowResult<Stmt, ?>> results = solver.solve(cfg);
+                DataflowResult<Stmt, ?> expected = ir.getResult(ConstantPropagation.ID);
+                assertSameResult(cfg, expected,
+                        results.get(ConstantPropagation.ID), Function.identity());
+                assertSameResult(cfg, expected,
+                        results.get(CONSTPROP_COPY), Function.identity());
+            });
+        }
+    }
+
+    private static void runDeadCode(String input) {
+        Tests.test(input, CLASS_PATH, DeadCodeDetection.ID,
+                "-a", "livevar=strongly:false",
+                "-a", "constprop=edge-refine:false");
+    }
+
+    private static void forEachIR(Consumer<IR> action) {
+        World.get().getClassHierarchy()
+                .applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && !m.isNative())
+                .map(JMethod::getIR)
+                .forEach(action);
+    }
+
+    private static Object toSet(Object fact) {
+        return fact == null ? null :
+                ((SetFact<?>) fact).stream().collect(Collectors.toSet());
+    }
+
+    private static void assertSameResult(
+            CFG<Stmt> cfg, DataflowResult<Stmt, ?> expected,
+            DataflowResult<Stmt, ?> actual, Function<Object, Object> normalize) {
+        for (Stmt node : cfg) {
+            Assert.assertEquals(normalize.apply(expected.getInFact(node)),
+                    normalize.apply(actual.getInFact(node)));
+            Assert.assertEquals(normalize.apply(expected.getOutFact(node)),
+                    normalize.apply(actual.getOutFact(node)));
+        }
+    }
+}
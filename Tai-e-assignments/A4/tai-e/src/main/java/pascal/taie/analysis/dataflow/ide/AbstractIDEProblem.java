@@ -0,0 +1,98 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+
+/**
+ * Provides common functionalities for {@link IDEProblem} implementations.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values
+ */
+public abstract class AbstractIDEProblem<Node, D, V> implements IDEProblem<Node, D, V> {
+
+    /**
+     * Dispatches {@link ICFGEdge} to specific flow functions
+     * according to the concrete type of {@link ICFGEdge}.
+     */
+    @Override
+    public FlowFunction<D> getFlowFunction(ICFGEdge<Node> edge) {
+        if (edge instanceof NormalEdge) {
+            return getNormalFlowFunction((NormalEdge<Node>) edge);
+        } else if (edge instanceof CallToReturnEdge) {
+            return getCallToReturnFlowFunction((CallToReturnEdge<Node>) edge);
+        } else if (edge instanceof CallEdge) {
+            return getCallFlowFunction((CallEdge<Node>) edge);
+        } else {
+            return getReturnFlowFunction((ReturnEdge<Node>) edge);
+        }
+    }
+
+    /**
+     * Dispatches {@link ICFGEdge} to specific edge functions
+     * according to the concrete type of {@link ICFGEdge}.
+     */
+    @Override
+    public EdgeFunction<V> getEdgeFunction(ICFGEdge<Node> edge, D source, D target) {
+        if (edge instanceof NormalEdge) {
+            return getNormalEdgeFunction((NormalEdge<Node>) edge, source, target);
+        } else if (edge instanceof CallToReturnEdge) {
+            return getCallToReturnEdgeFunction(
+                    (CallToReturnEdge<Node>) edge, source, target);
+        } else if (edge instanceof CallEdge) {
+            return getCallEdgeFunction((CallEdge<Node>) edge, source, target);
+        } else {
+            return getReturnEdgeFunction((ReturnEdge<Node>) edge, source, target);
+        }
+    }
+
+    // ---------- flow functions for specific ICFG edges ----------
+    protected abstract FlowFunction<D> getNormalFlowFunction(NormalEdge<Node> edge);
+
+    protected abstract FlowFunction<D> getCallToReturnFlowFunction(CallToReturnEdge<Node> edge);
+
+    protected abstract FlowFunction<D> getCallFlowFunction(CallEdge<Node> edge);
+
+    protected abstract FlowFunction<D> getReturnFlowFunction(ReturnEdge<Node> edge);
+    // ----------------------------------------------------------------
+
+    // ---------- edge functions for specific ICFG edges ----------
+    protected abstract EdgeFunction<V> getNormalEdgeFunction(
+            NormalEdge<Node> edge, D source, D target);
+
+    protected abstract EdgeFunction<V> getCallToReturnEdgeFunction(
+            CallToReturnEdge<Node> edge, D source, D target);
+
+    protected abstract EdgeFunction<V> getCallEdgeFunction(
+            CallEdge<Node> edge, D source, D target);
+
+    protected abstract EdgeFunction<V> getReturnEdgeFunction(
+            ReturnEdge<Node> edge, D source, D target);
+    // ----------------------------------------------------------------
+}
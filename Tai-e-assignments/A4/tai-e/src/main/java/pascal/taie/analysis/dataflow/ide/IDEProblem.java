@@ -0,0 +1,74 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+
+/**
+ * Template interface for defining IDE problems. An IFDS problem is an
+ * IDE problem whose edge functions are all identity; its solution is
+ * given by {@link IDEResult#getFacts(Object)}.
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values
+ */
+public interface IDEProblem<Node, D, V> {
+
+    /**
+     * @return the special zero fact, which holds at every reachable node.
+     */
+    D zeroValue();
+
+    /**
+     * @return the value of the zero fact at the entries of entry methods.
+     */
+    V seedValue();
+
+    /**
+     * @return the top element of the value lattice, i.e., the value
+     * of the facts which are not reached.
+     */
+    V topValue();
+
+    /**
+     * Meets two values.
+     */
+    V meetValue(V v1, V v2);
+
+    /**
+     * @return the identity edge function.
+     */
+    EdgeFunction<V> identity();
+
+    /**
+     * @return the flow function of given ICFG edge.
+     */
+    FlowFunction<D> getFlowFunction(ICFGEdge<Node> edge);
+
+    /**
+     * @return the edge function of given ICFG edge between
+     * the source fact and the target fact.
+     */
+    EdgeFunction<V> getEdgeFunction(ICFGEdge<Node> edge, D source, D target);
+}
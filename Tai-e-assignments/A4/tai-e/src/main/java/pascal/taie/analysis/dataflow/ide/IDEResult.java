@@ -0,0 +1,76 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Result of IDE solver, which maps each node to the values
+ * of the facts that hold at the node (before the node is executed).
+ *
+ * @param <Node> type of ICFG nodes
+ * @param <D>    type of data-flow facts
+ * @param <V>    type of values
+ */
+public class IDEResult<Node, D, V> {
+
+    private final Map<Node, Map<D, V>> values = Maps.newMap();
+
+    private final V topValue;
+
+    IDEResult(V topValue) {
+        this.topValue = topValue;
+    }
+
+    void setValue(Node node, D fact, V value) {
+        values.computeIfAbsent(node, n -> Maps.newHybridMap()).put(fact, value);
+    }
+
+    /**
+     * @return the facts that hold at given node, i.e., the IFDS result.
+     */
+    public Set<D> getFacts(Node node) {
+        return getValues(node).keySet();
+    }
+
+    /**
+     * @return the values of the facts that hold at given node.
+     */
+    public Map<D, V> getValues(Node node) {
+        return Collections.unmodifiableMap(
+                values.getOrDefault(node, Collections.emptyMap()));
+    }
+
+    /**
+     * @return the value of given fact at given node, or top value
+     * if the fact does not hold at the node.
+     */
+    public V getValue(Node node, D fact) {
+        return values.getOrDefault(node, Collections.emptyMap())
+                .getOrDefault(fact, topValue);
+    }
+}
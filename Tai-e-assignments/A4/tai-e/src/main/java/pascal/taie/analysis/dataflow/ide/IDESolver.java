@@ -0,0 +1,305 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Tabulation solver for IDE problems (Sagiv, Reps and Horwitz, TCS'96).
+ * <p>
+ * Phase I computes the <i>jump functions</i>, i.e., the edge functions
+ * of path edges from the facts at the entry of a method to the facts at
+ * the nodes of the method, together with the <i>end summaries</i> of
+ * methods, which are reused at all call sites that reach the callee
+ * with the same entry fact.
+ * <p>
+ * Phase II first propagates values to the entries of methods through
+ * call sites, then computes the values at all other nodes by applying
+ * the jump functions to the entry values.
+ *
+ * @param <Method> type of methods
+ * @param <Node>   type of ICFG nodes
+ * @param <D>      type of data-flow facts
+ * @param <V>      type of values
+ */
+public class IDESolver<Method, Node, D, V> {
+
+    private final IDEProblem<Node, D, V> problem;
+
+    private final ICFG<Method, Node> icfg;
+
+    /**
+     * Jump functions: target node -> target fact -> source fact -> function,
+     * where source facts are at the entry of the method of the target node.
+     */
+    private final Map<Node, Map<D, Map<D, EdgeFunction<V>>>> jumpFns = Maps.newMap();
+
+    /**
+     * End summaries: method entry -> entry fact -> exit fact -> function.
+     */
+    private final Map<Node, Map<D, Map<D, EdgeFunction<V>>>> endSummaries = Maps.newMap();
+
+    /**
+     * Incoming calls: method entry -> entry fact -> call site -> facts at call site.
+     */
+    private final Map<Node, Map<D, MultiMap<Node, D>>> incoming = Maps.newMap();
+
+    /**
+     * Call sites that are reached in each method.
+     */
+    private final MultiMap<Method, Node> callSites = Maps.newMultiMap();
+
+    private final Queue<PathEdge<Node, D>> workList = new ArrayDeque<>();
+
+    public IDESolver(IDEProblem<Node, D, V> problem, ICFG<Method, Node> icfg) {
+        this.problem = problem;
+        this.icfg = icfg;
+    }
+
+    public IDEResult<Node, D, V> solve() {
+        D zero = problem.zeroValue();
+        icfg.entryMethods().forEach(method ->
+                propagate(zero, icfg.getEntryOf(method), zero, problem.identity()));
+        computeJumpFunctions();
+        return computeValues();
+    }
+
+    // ---------- Phase I: jump functions and summaries ----------
+
+    private void propagate(D sourceFact, Node target, D targetFact, EdgeFunction<V> f) {
+        Map<D, EdgeFunction<V>> fns = jumpFns
+                .computeIfAbsent(target, n -> Maps.newHybridMap())
+                .computeIfAbsent(targetFact, d -> Maps.newHybridMap());
+        EdgeFunction<V> old = fns.get(sourceFact);
+        EdgeFunction<V> newFn = old == null ? f : old.meetWith(f);
+        if (!newFn.equals(old)) {
+            fns.put(sourceFact, newFn);
+            workList.add(new PathEdge<>(sourceFact, target, targetFact));
+        }
+    }
+
+    private EdgeFunction<V> getJumpFunction(D sourceFact, Node target, D targetFact) {
+        return jumpFns.get(target).get(targetFact).get(sourceFact);
+    }
+
+    private void computeJumpFunctions() {
+        while (!workList.isEmpty()) {
+            PathEdge<Node, D> pathEdge = workList.poll();
+            Node node = pathEdge.node();
+            if (icfg.isCallSite(node)) {
+                processCall(pathEdge);
+            } else if (node.equals(icfg.getExitOf(icfg.getContainingMethodOf(node)))) {
+                processExit(pathEdge);
+            } else {
+                processNormal(pathEdge);
+            }
+        }
+    }
+
+    private void processNormal(PathEdge<Node, D> pathEdge) {
+        D d1 = pathEdge.sourceFact();
+        D d2 = pathEdge.fact();
+        EdgeFunction<V> f = getJumpFunction(d1, pathEdge.node(), d2);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(pathEdge.node())) {
+            for (D d3 : problem.getFlowFunction(edge).apply(d2)) {
+                propagate(d1, edge.getTarget(), d3,
+                        f.composeWith(problem.getEdgeFunction(edge, d2, d3)));
+            }
+        }
+    }
+
+    private void processCall(PathEdge<Node, D> pathEdge) {
+        D d1 = pathEdge.sourceFact();
+        Node callSite = pathEdge.node();
+        D d2 = pathEdge.fact();
+        EdgeFunction<V> f = getJumpFunction(d1, callSite, d2);
+        callSites.put(icfg.getContainingMethodOf(callSite), callSite);
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge<Node> callEdge) {
+                Node calleeEntry = callEdge.getTarget();
+                for (D d3 : problem.getFlowFunction(callEdge).apply(d2)) {
+                    incoming.computeIfAbsent(calleeEntry, n -> Maps.newHybridMap())
+                            .computeIfAbsent(d3, d -> Maps.newMultiMap())
+                            .put(callSite, d2);
+                    propagate(d3, calleeEntry, d3, problem.identity());
+                    // reuse the summaries that have been computed for the callee
+                    Map<D, EdgeFunction<V>> summaries = endSummaries
+                            .getOrDefault(calleeEntry, Collections.emptyMap())
+                            .getOrDefault(d3, Collections.emptyMap());
+                    for (Map.Entry<D, EdgeFunction<V>> e : List.copyOf(summaries.entrySet())) {
+                        EdgeFunction<V> callFn = problem.getEdgeFunction(callEdge, d2, d3);
+                        applySummary(callSite, callEdge, callFn, e.getKey(), e.getValue(),
+                                Map.of(d1, f));
+                    }
+                }
+            } else {
+                for (D d3 : problem.getFlowFunction(edge).apply(d2)) {
+                    propagate(d1, edge.getTarget(), d3,
+                            f.composeWith(problem.getEdgeFunction(edge, d2, d3)));
+                }
+            }
+        }
+    }
+
+    private void processExit(PathEdge<Node, D> pathEdge) {
+        D d1 = pathEdge.sourceFact();
+        Node exit = pathEdge.node();
+        D d2 = pathEdge.fact();
+        EdgeFunction<V> f = getJumpFunction(d1, exit, d2);
+        Node entry = icfg.getEntryOf(icfg.getContainingMethodOf(exit));
+        endSummaries.computeIfAbsent(entry, n -> Maps.newHybridMap())
+                .computeIfAbsent(d1, d -> Maps.newHybridMap())
+                .put(d2, f);
+        MultiMap<Node, D> callers = incoming
+                .getOrDefault(entry, Collections.emptyMap())
+                .get(d1);
+        if (callers == null) {
+            return;
+        }
+        callers.forEach((callSite, d4) -> {
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+                if (edge instanceof CallEdge<Node> callEdge &&
+                        callEdge.getTarget().equals(entry)) {
+                    EdgeFunction<V> callFn = problem.getEdgeFunction(callEdge, d4, d1);
+                    applySummary(callSite, callEdge, callFn, d2, f,
+                            Map.copyOf(jumpFns.get(callSite).get(d4)));
+                }
+            }
+        });
+    }
+
+    /**
+     * Instantiates a summary of the callee at given call site.
+     *
+     * @param callFn     edge function of the call edge
+     * @param exitFact   fact at the exit of the callee
+     * @param summary    summary function from the callee entry to exitFact
+     * @param callerFns  jump functions from the caller entry to the
+     *                   call site fact, keyed by the caller entry facts
+     */
+    private void applySummary(Node callSite, CallEdge<Node> callEdge,
+                              EdgeFunction<V> callFn, D exitFact,
+                              EdgeFunction<V> summary,
+                              Map<D, EdgeFunction<V>> callerFns) {
+        Node exit = icfg.getExitOf(icfg.getContainingMethodOf(callEdge.getTarget()));
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(exit)) {
+            if (edge instanceof ReturnEdge<Node> returnEdge &&
+                    returnEdge.getCallSite().equals(callSite)) {
+                for (D d5 : problem.getFlowFunction(returnEdge).apply(exitFact)) {
+                    EdgeFunction<V> fRet = callFn.composeWith(summary)
+                            .composeWith(problem.getEdgeFunction(returnEdge, exitFact, d5));
+                    callerFns.forEach((d3, f3) -> propagate(d3,
+                            returnEdge.getTarget(), d5, f3.composeWith(fRet)));
+                }
+            }
+        }
+    }
+
+    // ---------- Phase II: values ----------
+
+    private IDEResult<Node, D, V> computeValues() {
+        Map<Node, Map<D, V>> entryValues = Maps.newMap();
+        Queue<PathEdge<Node, D>> entryWorkList = new ArrayDeque<>();
+        D zero = problem.zeroValue();
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            setEntryValue(entryValues, entryWorkList, entry, zero, problem.seedValue());
+        });
+        // (i) propagates values to method entries through call sites
+        while (!entryWorkList.isEmpty()) {
+            PathEdge<Node, D> item = entryWorkList.poll();
+            Node entry = item.node();
+            D d = item.fact();
+            V value = entryValues.get(entry).get(d);
+            Method method = icfg.getContainingMethodOf(entry);
+            for (Node callSite : callSites.get(method)) {
+                jumpFns.get(callSite).forEach((d2, fns) -> {
+                    EdgeFunction<V> f = fns.get(d);
+                    if (f == null) {
+                        return;
+                    }
+                    V callSiteValue = f.computeTarget(value);
+                    for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+                        if (edge instanceof CallEdge) {
+                            for (D d3 : problem.getFlowFunction(edge).apply(d2)) {
+                                V calleeValue = problem.getEdgeFunction(edge, d2, d3)
+                                        .computeTarget(callSiteValue);
+                                setEntryValue(entryValues, entryWorkList,
+                                        edge.getTarget(), d3, calleeValue);
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        // (ii) applies jump functions to the values at method entries
+        IDEResult<Node, D, V> result = new IDEResult<>(problem.topValue());
+        jumpFns.forEach((node, factFns) -> {
+            Map<D, V> values = entryValues.getOrDefault(
+                    icfg.getEntryOf(icfg.getContainingMethodOf(node)),
+                    Collections.emptyMap());
+            factFns.forEach((d2, fns) -> {
+                V value = problem.topValue();
+                for (Map.Entry<D, EdgeFunction<V>> e : fns.entrySet()) {
+                    V entryValue = values.get(e.getKey());
+                    if (entryValue != null) {
+                        value = problem.meetValue(value,
+                                e.getValue().computeTarget(entryValue));
+                    }
+                }
+                result.setValue(node, d2, value);
+            });
+        });
+        return result;
+    }
+
+    private void setEntryValue(Map<Node, Map<D, V>> entryValues,
+                               Queue<PathEdge<Node, D>> entryWorkList,
+                               Node entry, D fact, V value) {
+        Map<D, V> values = entryValues.computeIfAbsent(entry, n -> Maps.newHybridMap());
+        V old = values.get(fact);
+        V newValue = old == null ? value : problem.meetValue(old, value);
+        if (!newValue.equals(old)) {
+            values.put(fact, newValue);
+            entryWorkList.add(new PathEdge<>(fact, entry, fact));
+        }
+    }
+
+    /**
+     * Path edge from {@code sourceFact} at the entry of a method
+     * to {@code fact} at {@code node} of the method.
+     */
+    private record PathEdge<Node, D>(D sourceFact, Node node, D fact) {
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.exp.ArithmeticExp;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * IDE formulation of linear constant propagation for int values.
+ * The facts are int variables, and the value of a variable is
+ * a {@link Value}. Assignments of the form {@code x = a * y + b}
+ * are represented by {@link LinearEdgeFunction}s, so that constants
+ * are propagated through method boundaries without re-analyzing
+ * the callee for each distinct constant.
+ * <p>
+ * Other binary expressions are not distributive, thus their values
+ * are computed in rounds: in each round, such an expression takes the
+ * value computed for it in the previous round (initially UNDEF, i.e., the
+ * optimistic assumption), and after the round its value is re-evaluated
+ * on the values of its operands by {@link #updateNonLinearValues}.
+ * The values only descend, so the rounds reach a fixed point.
+ * <p>
+ * Other assignments to int variables make them NAC.
+ */
+public class LinearConstantPropagation extends AbstractIDEProblem<Stmt, Var, Value> {
+
+    private static final Var ZERO = new Var(null, "<zero>", null, -1);
+
+    /**
+     * Values of the non-linear binary expressions computed so far.
+     */
+    private final Map<Stmt, Value> nonLinearValues = Maps.newMap();
+
+    @Override
+    public Var zeroValue() {
+        return ZERO;
+    }
+
+    @Override
+    public Value seedValue() {
+        return Value.getNAC();
+    }
+
+    @Override
+    public Value topValue() {
+        return Value.getUndef();
+    }
+
+    @Override
+    public Value meetValue(Value v1, Value v2) {
+        if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef()) {
+            return v1;
+        } else if (v1.equals(v2)) {
+            return v1;
+        } else {
+            return Value.getNAC();
+        }
+    }
+
+    @Override
+    public EdgeFunction<Value> identity() {
+        return LinearEdgeFunction.identity();
+    }
+
+    /**
+     * @return true if given fact is the zero fact, otherwise false.
+     */
+    public boolean isZero(Var fact) {
+        return fact == ZERO;
+    }
+
+    // ---------- normal edges ----------
+
+    @Override
+    protected FlowFunction<Var> getNormalFlowFunction(NormalEdge<Stmt> edge) {
+        Var lhs = getIntDef(edge.getSource());
+        if (lhs == null) {
+            return Set::of;
+        }
+        Var source = getLinearDef(edge.getSource()).source();
+        return d -> {
+            Set<Var> result = Sets.newHybridSet();
+            if (!d.equals(lhs)) {
+                result.add(d);
+            }
+            if (d.equals(source)) {
+                result.add(lhs);
+            }
+            return result;
+        };
+    }
+
+    @Override
+    protected EdgeFunction<Value> getNormalEdgeFunction(
+            NormalEdge<Stmt> edge, Var source, Var target) {
+        Var lhs = getIntDef(edge.getSource());
+        if (lhs != null && target.equals(lhs)) {
+            LinearDef def = getLinearDef(edge.getSource());
+            if (source.equals(def.source())) {
+                return def.function();
+            }
+        }
+        return identity();
+    }
+
+    /**
+     * @return the int variable defined by given statement, or null if
+     * the statement does not define an int variable.
+     */
+    @Nullable
+    private static Var getIntDef(Stmt stmt) {
+        if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var var &&
+                ConstantPropagation.canHoldInt(var)) {
+            return var;
+        }
+        return null;
+    }
+
+    /**
+     * Right-hand side of an int assignment in linear form,
+     * i.e., {@code function(source)}.
+     */
+    private record LinearDef(Var source, LinearEdgeFunction function) {
+    }
+
+    private LinearDef getLinearDef(Stmt stmt) {
+        Exp rhs = ((DefinitionStmt<?, ?>) stmt).getRValue();
+        if (rhs instanceof IntLiteral literal) {
+            return constant(literal.getValue());
+        }
+        if (rhs instanceof Var var && ConstantPropagation.canHoldInt(var)) {
+            Integer c = getConstant(var);
+            return c != null ? constant(c) :
+                    new LinearDef(var, LinearEdgeFunction.identity());
+        }
+        if (rhs instanceof BinaryExp exp &&
+                ConstantPropagation.canHoldInt(exp.getOperand1()) &&
+                ConstantPropagation.canHoldInt(exp.getOperand2())) {
+            Var y = exp.getOperand1();
+            Var z = exp.getOperand2();
+            Integer c1 = getConstant(y);
+            Integer c2 = getConstant(z);
+            if (c1 != null && c2 != null) {
+                // all operands are constants, thus any int expression
+                // can be folded directly
+                CPFact operands = new CPFact();
+                operands.update(y, Value.makeConstant(c1));
+                operands.update(z, Value.makeConstant(c2));
+                return toLinearDef(ConstantPropagation.evaluate(exp, operands));
+            } else if (exp instanceof ArithmeticExp arith) {
+                ArithmeticExp.Op op = arith.getOperator();
+                if (c2 != null) {
+                    switch (op) {
+                        case ADD: return new LinearDef(y, LinearEdgeFunction.linear(1, c2));
+                        case SUB: return new LinearDef(y, LinearEdgeFunction.linear(1, -c2));
+                        case MUL: return new LinearDef(y, LinearEdgeFunction.linear(c2, 0));
+                    }
+                } else if (c1 != null) {
+                    switch (op) {
+                        case ADD: return new LinearDef(z, LinearEdgeFunction.linear(1, c1));
+                        case SUB: return new LinearDef(z, LinearEdgeFunction.linear(-1, c1));
+                        case MUL: return new LinearDef(z, LinearEdgeFunction.linear(c1, 0));
+                    }
+                }
+            }
+            nonLinearValues.putIfAbsent(stmt, Value.getUndef());
+            return toLinearDef(nonLinearValues.get(stmt));
+        }
+        return new LinearDef(ZERO, LinearEdgeFunction.allBottom());
+    }
+
+    /**
+     * Re-evaluates the non-linear binary expressions on the values of
+     * their operands in given result of the last round.
+     *
+     * @return true if the value of any expression changed, in which case
+     * another round is needed, otherwise false.
+     */
+    public boolean updateNonLinearValues(IDEResult<Stmt, Var, Value> result) {
+        boolean changed = false;
+        for (Map.Entry<Stmt, Value> e : nonLinearValues.entrySet()) {
+            Stmt stmt = e.getKey();
+            BinaryExp exp = (BinaryExp) ((DefinitionStmt<?, ?>) stmt).getRValue();
+            CPFact operands = new CPFact();
+            for (Var operand : List.of(exp.getOperand1(), exp.getOperand2())) {
+                Integer c = getConstant(operand);
+                operands.update(operand, c != null ? Value.makeConstant(c) :
+                        result.getValue(stmt, operand));
+            }
+            Value value = meetValue(e.getValue(),
+                    ConstantPropagation.evaluate(exp, operands));
+            if (!value.equals(e.getValue())) {
+                e.setValue(value);
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    private static LinearDef toLinearDef(Value value) {
+        if (value.isConstant()) {
+            return constant(value.getConstant());
+        } else if (value.isUndef()) {
+            // e.g., division by zero
+            return top();
+        } else {
+            return new LinearDef(ZERO, LinearEdgeFunction.allBottom());
+        }
+    }
+
+    private static LinearDef constant(int c) {
+        return new LinearDef(ZERO, LinearEdgeFunction.constant(c));
+    }
+
+    private static LinearDef top() {
+        return new LinearDef(ZERO, LinearEdgeFunction.allTop());
+    }
+
+    /**
+     * @return the int constant held by given temporary variable,
+     * or null if the variable does not hold an int constant.
+     */
+    @Nullable
+    private static Integer getConstant(Var var) {
+        if (var.isTempConst() &&
+                var.getTempConstValue() instanceof IntLiteral literal) {
+            return literal.getValue();
+        }
+        return null;
+    }
+
+    // ---------- call-to-return edges ----------
+
+    @Override
+    protected FlowFunction<Var> getCallToReturnFlowFunction(CallToReturnEdge<Stmt> edge) {
+        Var lhs = getIntDef(edge.getSource());
+        // the value of lhs comes from return edges
+        return d -> d.equals(lhs) ? Set.of() : Set.of(d);
+    }
+
+    @Override
+    protected EdgeFunction<Value> getCallToReturnEdgeFunction(
+            CallToReturnEdge<Stmt> edge, Var source, Var target) {
+        return identity();
+    }
+
+    // ---------- call edges ----------
+
+    @Override
+    protected FlowFunction<Var> getCallFlowFunction(CallEdge<Stmt> edge) {
+        List<Var> args = ((Invoke) edge.getSource()).getInvokeExp().getArgs();
+        List<Var> params = edge.getCallee().getIR().getParams();
+        return d -> {
+            if (isZero(d)) {
+                return Set.of(ZERO);
+            }
+            Set<Var> result = Sets.newHybridSet();
+            for (int i = 0; i < args.size(); ++i) {
+                if (args.get(i).equals(d) &&
+                        ConstantPropagation.canHoldInt(d) &&
+                        ConstantPropagation.canHoldInt(params.get(i))) {
+                    result.add(params.get(i));
+                }
+            }
+            return result;
+        };
+    }
+
+    @Override
+    protected EdgeFunction<Value> getCallEdgeFunction(
+            CallEdge<Stmt> edge, Var source, Var target) {
+        return identity();
+    }
+
+    // ---------- return edges ----------
+
+    @Override
+    protected FlowFunction<Var> getReturnFlowFunction(ReturnEdge<Stmt> edge) {
+        Var lhs = getIntDef(edge.getCallSite());
+        return d -> {
+            if (isZero(d)) {
+                return Set.of(ZERO);
+            } else if (lhs != null && edge.getReturnVars().contains(d)) {
+                return Set.of(lhs);
+            } else {
+                return Set.of();
+            }
+        };
+    }
+
+    @Override
+    protected EdgeFunction<Value> getReturnEdgeFunction(
+            ReturnEdge<Stmt> edge, Var source, Var target) {
+        return identity();
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.ide;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+
+/**
+ * Edge functions of linear constant propagation, which are of the form
+ * {@code λv. a * v + b}, plus the constant functions {@code λv. UNDEF}
+ * (all-top) and {@code λv. NAC} (all-bottom).
+ */
+public final class LinearEdgeFunction implements EdgeFunction<Value> {
+
+    private enum Kind {
+        TOP, BOTTOM, LINEAR
+    }
+
+    private static final LinearEdgeFunction ALL_TOP =
+            new LinearEdgeFunction(Kind.TOP, 0, 0);
+
+    private static final LinearEdgeFunction ALL_BOTTOM =
+            new LinearEdgeFunction(Kind.BOTTOM, 0, 0);
+
+    private static final LinearEdgeFunction IDENTITY =
+            new LinearEdgeFunction(Kind.LINEAR, 1, 0);
+
+    private final Kind kind;
+
+    private final int a;
+
+    private final int b;
+
+    private LinearEdgeFunction(Kind kind, int a, int b) {
+        this.kind = kind;
+        this.a = a;
+        this.b = b;
+    }
+
+    public static LinearEdgeFunction allTop() {
+        return ALL_TOP;
+    }
+
+    public static LinearEdgeFunction allBottom() {
+        return ALL_BOTTOM;
+    }
+
+    public static LinearEdgeFunction identity() {
+        return IDENTITY;
+    }
+
+    /**
+     * @return function {@code λv. c}.
+     */
+    public static LinearEdgeFunction constant(int c) {
+        return linear(0, c);
+    }
+
+    /**
+     * @return function {@code λv. a * v + b}.
+     */
+    public static LinearEdgeFunction linear(int a, int b) {
+        return a == 1 && b == 0 ? IDENTITY : new LinearEdgeFunction(Kind.LINEAR, a, b);
+    }
+
+    @Override
+    public Value computeTarget(Value source) {
+        return switch (kind) {
+            case TOP -> Value.getUndef();
+            case BOTTOM -> Value.getNAC();
+            case LINEAR -> {
+                if (a == 0) {
+                    yield Value.makeConstant(b);
+                } else if (source.isConstant()) {
+                    yield Value.makeConstant(a * source.getConstant() + b);
+                } else {
+                    yield source;
+                }
+            }
+        };
+    }
+
+    @Override
+    public EdgeFunction<Value> composeWith(EdgeFunction<Value> second) {
+        LinearEdgeFunction g = (LinearEdgeFunction) second;
+        if (g.kind != Kind.LINEAR || g.a == 0) {
+            // g ignores its argument
+            return g;
+        }
+        return switch (kind) {
+            case TOP, BOTTOM -> this;
+            case LINEAR -> linear(g.a * a, g.a * b + g.b);
+        };
+    }
+
+    @Override
+    public EdgeFunction<Value> meetWith(EdgeFunction<Value> other) {
+        LinearEdgeFunction g = (LinearEdgeFunction) other;
+        if (kind == Kind.TOP || equals(g)) {
+            return g;
+        } else if (g.kind == Kind.TOP) {
+            return this;
+        } else {
+            return ALL_BOTTOM;
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LinearEdgeFunction that)) {
+            return false;
+        }
+        return kind == that.kind && a == that.a && b == that.b;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * kind.hashCode() + a) + b;
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case TOP -> "λv.UNDEF";
+            case BOTTOM -> "λv.NAC";
+            case LINEAR -> "λv." + a + "*v+" + b;
+        };
+    }
+}
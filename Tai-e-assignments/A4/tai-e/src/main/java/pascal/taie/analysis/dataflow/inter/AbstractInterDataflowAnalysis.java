@@ -27,6 +27,7 @@ import pascal.taie.analysis.ProgramAnalysis;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.FrozenICFG;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
@@ -45,6 +46,18 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
         extends ProgramAnalysis
         implements InterDataflowAnalysis<Node, Fact> {
 
+    private static final String SUMMARY_SOLVER = "summary";
+
+    private static final int DEFAULT_SUMMARY_LIMIT = 16;
+
+    private static final String PARALLEL_SOLVER = "parallel";
+
+    private static final String SPARSE_SOLVER = "sparse";
+
+    private static final String INDEXED_SOLVER = "indexed";
+
+    private static final String METHOD_FIRST_SCHEDULE = "method-first";
+
     protected ICFG<Method, Node> icfg;
 
     protected InterSolver<Method, Node, Fact> solver;
@@ -117,12 +130,48 @@ public abstract class AbstractInterDataflowAnalysis<Method, Node, Fact>
     protected abstract Fact transferReturnEdge(ReturnEdge<Node> edge, Fact returnOut);
     // ----------------------------------------------------------------
 
+    /**
+     * Solves the analysis on the whole ICFG by default. If option
+     * {@code solver} is {@code summary}, the analysis is solved by
+     * {@link SummarySolver}, which keeps at most {@code summary-limit}
+     * contexts for each method. If option {@code solver} is
+     * {@code parallel}, the analysis is solved by {@link ParallelInterSolver}
+     * with {@code parallelism} threads (all processors by default).
+     * If option {@code solver} is {@code sparse}, {@link InterSolver}
+     * only allocates facts for reached nodes. If option {@code solver} is
+     * {@code indexed}, the ICFG is frozen and solved by
+     * {@link IndexedInterSolver}. For the default and sparse solvers,
+     * option {@code schedule: method-first} replaces the FIFO work-list
+     * by a {@link MethodFirstWorkList}, and option {@code edge-cache: true}
+     * caches the results of edge transfer functions.
+     */
     @Override
     public Object analyze() {
         icfg = World.get().getResult(ICFGBuilder.ID);
         initialize();
-        solver = new InterSolver<>(this, icfg);
-        DataflowResult<Node, Fact> result = solver.solve();
+        DataflowResult<Node, Fact> result;
+        String solverKind = getOptions().getString("solver");
+        if (SUMMARY_SOLVER.equals(solverKind)) {
+            int limit = getOptions().get("summary-limit") != null ?
+                    getOptions().getInt("summary-limit") : DEFAULT_SUMMARY_LIMIT;
+            result = new SummarySolver<>(this, icfg, limit).solve();
+        } else if (PARALLEL_SOLVER.equals(solverKind)) {
+            int parallelism = getOptions().get("parallelism") != null ?
+                    getOptions().getInt("parallelism") :
+                    Runtime.getRuntime().availableProcessors();
+            result = new ParallelInterSolver<>(this, icfg, parallelism).solve();
+        } else if (INDEXED_SOLVER.equals(solverKind)) {
+            FrozenICFG<Method, Node> frozen = icfg instanceof FrozenICFG<Method, Node> f ?
+                    f : new FrozenICFG<>(icfg);
+            result = new IndexedInterSolver<>(this, frozen).solve();
+        } else {
+            solver = new InterSolver<>(this, icfg,
+                    SPARSE_SOLVER.equals(solverKind),
+                    METHOD_FIRST_SCHEDULE.equals(
+                            getOptions().getString("schedule")),
+                    getOptions().getBooleanOrDefault("edge-cache", false));
+            result = solver.solve();
+        }
         finish();
         return result;
     }
@@ -0,0 +1,259 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.Exp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Demand-driven inter-procedural constant propagation, which answers
+ * queries of the form "what is the value of variable {@code v} before
+ * statement {@code s}?" without solving the whole ICFG.
+ * <p>
+ * A query walks backward over the ICFG from the queried statement: across
+ * normal edges to the definitions of the variable, across call edges to the
+ * arguments at the call sites, and across return edges to the returned
+ * variables of the callees. The visited (statement, variable) pairs form an
+ * equation system, i.e., the slice of the query, which is solved by chaotic
+ * iteration. Since the slice is closed under dependencies, the values of all
+ * its equations are final, and they are cached to answer later queries.
+ * <p>
+ * Like {@link InterConstantPropagation}, the queries are
+ * context-insensitive, and the values of fields and arrays are NAC.
+ */
+public class ConstantQueries {
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final Set<JMethod> entryMethods;
+
+    /**
+     * Final values of the equations that have been solved.
+     */
+    private final Map<Key, Value> cache = Maps.newMap();
+
+    public ConstantQueries(ICFG<JMethod, Stmt> icfg) {
+        this.icfg = icfg;
+        this.entryMethods = icfg.entryMethods().collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the value of {@code var} before {@code stmt} is executed.
+     */
+    public Value query(Stmt stmt, Var var) {
+        if (!ConstantPropagation.canHoldInt(var)) {
+            return Value.getNAC();
+        }
+        Key root = new Key(stmt, var, false);
+        Value value = cache.get(root);
+        if (value == null) {
+            solve(root);
+            value = cache.get(root);
+        }
+        return value;
+    }
+
+    /**
+     * Equation for the value of a variable before ({@code after == false})
+     * or after a statement.
+     */
+    private record Key(Stmt stmt, Var var, boolean after) {
+    }
+
+    /**
+     * Discovers the slice of given equation, and solves it.
+     */
+    private void solve(Key root) {
+        Map<Key, Value> values = Maps.newMap();
+        MultiMap<Key, Key> dependents = Maps.newMultiMap();
+        List<Key> slice = new ArrayList<>();
+        Deque<Key> stack = new ArrayDeque<>();
+        values.put(root, Value.getUndef());
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Key key = stack.pop();
+            slice.add(key);
+            for (Key dep : dependencies(key)) {
+                if (!cache.containsKey(dep)) {
+                    dependents.put(dep, key);
+                    if (!values.containsKey(dep)) {
+                        values.put(dep, Value.getUndef());
+                        stack.push(dep);
+                    }
+                }
+            }
+        }
+        Function<Key, Value> lookup = k -> {
+            Value v = cache.get(k);
+            return v != null ? v : values.get(k);
+        };
+        Queue<Key> workList = new SetQueue<>();
+        workList.addAll(slice);
+        while (!workList.isEmpty()) {
+            Key key = workList.poll();
+            Value value = evaluate(key, lookup);
+            if (!value.equals(values.get(key))) {
+                values.put(key, value);
+                workList.addAll(dependents.get(key));
+            }
+        }
+        cache.putAll(values);
+    }
+
+    /**
+     * @return the equations that given equation depends on.
+     */
+    private List<Key> dependencies(Key key) {
+        List<Key> deps = new ArrayList<>();
+        evaluate(key, k -> {
+            deps.add(k);
+            return Value.getUndef();
+        });
+        return deps;
+    }
+
+    /**
+     * Evaluates given equation. The function looks up all dependencies
+     * of the equation, so that it also serves to discover them.
+     */
+    private Value evaluate(Key key, Function<Key, Value> lookup) {
+        Stmt stmt = key.stmt();
+        Var var = key.var();
+        if (key.after()) {
+            if (!(stmt instanceof Invoke) &&
+                    stmt instanceof DefinitionStmt<?, ?> def &&
+                    var.equals(def.getLValue())) {
+                return evaluateRValue(stmt, def.getRValue(), lookup);
+            }
+            return lookup.apply(new Key(stmt, var, false));
+        }
+        JMethod method = icfg.getContainingMethodOf(stmt);
+        if (stmt.equals(icfg.getEntryOf(method))) {
+            return evaluateEntry(method, stmt, var, lookup);
+        }
+        Value value = Value.getUndef();
+        for (ICFGEdge<Stmt> edge : icfg.getInEdgesOf(stmt)) {
+            Stmt source = edge.getSource();
+            if (edge instanceof CallToReturnEdge) {
+                // the result of the call comes from return edges
+                if (!var.equals(((Invoke) source).getResult())) {
+                    value = meet(value, lookup.apply(new Key(source, var, false)));
+                }
+            } else if (edge instanceof ReturnEdge<Stmt> returnEdge) {
+                Invoke callSite = (Invoke) returnEdge.getCallSite();
+                if (var.equals(callSite.getResult())) {
+                    for (Var retVar : returnEdge.getReturnVars()) {
+                        value = meet(value, ConstantPropagation.canHoldInt(retVar) ?
+                                lookup.apply(new Key(source, retVar, false)) :
+                                Value.getNAC());
+                    }
+                }
+            } else {
+                value = meet(value, lookup.apply(new Key(source, var, true)));
+            }
+        }
+        return value;
+    }
+
+    private Value evaluateEntry(JMethod method, Stmt entry, Var var,
+                                Function<Key, Value> lookup) {
+        int index = method.getIR().getParams().indexOf(var);
+        if (index < 0) {
+            return Value.getUndef();
+        }
+        Value value = entryMethods.contains(method) ?
+                Value.getNAC() : Value.getUndef();
+        for (ICFGEdge<Stmt> edge : icfg.getInEdgesOf(entry)) {
+            if (edge instanceof CallEdge) {
+                Var arg = ((Invoke) edge.getSource()).getInvokeExp().getArg(index);
+                value = meet(value, ConstantPropagation.canHoldInt(arg) ?
+                        lookup.apply(new Key(edge.getSource(), arg, false)) :
+                        Value.getNAC());
+            }
+        }
+        return value;
+    }
+
+    private static Value evaluateRValue(Stmt stmt, Exp rvalue,
+                                        Function<Key, Value> lookup) {
+        if (rvalue instanceof IntLiteral literal) {
+            return Value.makeConstant(literal.getValue());
+        } else if (rvalue instanceof Var v) {
+            return ConstantPropagation.canHoldInt(v) ?
+                    lookup.apply(new Key(stmt, v, false)) : Value.getNAC();
+        } else if (rvalue instanceof BinaryExp binary) {
+            CPFact operands = new CPFact();
+            Set<Var> vars = Sets.newHybridSet();
+            vars.add(binary.getOperand1());
+            vars.add(binary.getOperand2());
+            for (Var v : vars) {
+                if (ConstantPropagation.canHoldInt(v)) {
+                    operands.update(v, lookup.apply(new Key(stmt, v, false)));
+                }
+            }
+            return ConstantPropagation.evaluate(binary, operands);
+        } else {
+            return Value.getNAC();
+        }
+    }
+
+    private static Value meet(Value v1, Value v2) {
+        if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef()) {
+            return v1;
+        } else if (v1.equals(v2)) {
+            return v1;
+        } else {
+            return Value.getNAC();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.FrozenICFG;
+
+import java.util.Arrays;
+
+/**
+ * Solver for inter-procedural data-flow analysis on a {@link FrozenICFG}.
+ * Facts, work-list and cached edge transfer results are all stored in
+ * arrays indexed by node ids (or edge positions), so the main loop
+ * neither hashes nodes nor allocates edge sets.
+ * <p>
+ * The work-list is a FIFO queue that holds each node at most once.
+ */
+class IndexedInterSolver<Method, Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final FrozenICFG<Method, Node> icfg;
+
+    private Fact[] inFacts;
+
+    private Fact[] outFacts;
+
+    /**
+     * Version stamps of OUT facts.
+     */
+    private int[] outVersions;
+
+    /**
+     * Cached results of edge transfer functions of in edges,
+     * and the version of the source OUT fact of each result.
+     */
+    private Fact[] edgeFacts;
+
+    private int[] edgeVersions;
+
+    private int[] queue;
+
+    private boolean[] inQueue;
+
+    private int head, size;
+
+    IndexedInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                       FrozenICFG<Method, Node> icfg) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        initialize();
+        doSolve();
+        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        for (int i = 0; i < inFacts.length; ++i) {
+            Node node = icfg.getNode(i);
+            result.setInFact(node, inFacts[i]);
+            result.setOutFact(node, outFacts[i]);
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void initialize() {
+        int n = icfg.getNumberOfNodes();
+        inFacts = (Fact[]) new Object[n];
+        outFacts = (Fact[]) new Object[n];
+        for (int i = 0; i < n; ++i) {
+            inFacts[i] = analysis.newInitialFact();
+            outFacts[i] = analysis.newInitialFact();
+        }
+        outVersions = new int[n];
+        int e = icfg.getNumberOfEdges();
+        edgeFacts = (Fact[]) new Object[e];
+        edgeVersions = new int[e];
+        Arrays.fill(edgeVersions, -1);
+        queue = new int[n];
+        inQueue = new boolean[n];
+        for (int i = 0; i < n; ++i) {
+            enqueue(i);
+        }
+    }
+
+    private void enqueue(int id) {
+        if (!inQueue[id]) {
+            inQueue[id] = true;
+            queue[(head + size++) % queue.length] = id;
+        }
+    }
+
+    private int dequeue() {
+        int id = queue[head];
+        head = (head + 1) % queue.length;
+        --size;
+        inQueue[id] = false;
+        return id;
+    }
+
+    private void doSolve() {
+        while (size > 0) {
+            int id = dequeue();
+            Fact in = inFacts[id];
+            for (int pos = icfg.getInStart(id); pos < icfg.getInEnd(id); ++pos) {
+                int source = icfg.getInSource(pos);
+                if (edgeVersions[pos] != outVersions[source]) {
+                    edgeFacts[pos] = analysis.transferEdge(
+                            icfg.getInEdge(pos), outFacts[source]);
+                    edgeVersions[pos] = outVersions[source];
+                }
+                analysis.meetInto(edgeFacts[pos], in);
+            }
+            if (analysis.transferNode(icfg.getNode(id), in, outFacts[id])) {
+                ++outVersions[id];
+                for (int pos = icfg.getOutStart(id); pos < icfg.getOutEnd(id); ++pos) {
+                    enqueue(icfg.getOutTarget(pos));
+                }
+            }
+        }
+    }
+}
@@ -22,14 +22,20 @@
 
 package pascal.taie.analysis.dataflow.inter;
 
+import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
 import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.dataflow.ide.IDEResult;
+import pascal.taie.analysis.dataflow.ide.IDESolver;
+import pascal.taie.analysis.dataflow.ide.LinearConstantPropagation;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.cfg.Edge;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.config.AnalysisConfig;
@@ -66,6 +72,40 @@ public class InterConstantPropagation extends
         return cp.isForward();
     }
 
+    /**
+     * If option {@code solver} is {@code ide}, solves the analysis as
+     * IDE linear constant propagation, in rounds until the values of the
+     * non-linear expressions are stable, otherwise falls back to
+     * the solvers of {@link AbstractInterDataflowAnalysis}.
+     */
+    @Override
+    public Object analyze() {
+        if (!"ide".equals(getOptions().getString("solver"))) {
+            return super.analyze();
+        }
+        icfg = World.get().getResult(ICFGBuilder.ID);
+        LinearConstantPropagation lcp = new LinearConstantPropagation();
+        IDEResult<Stmt, Var, Value> values;
+        do {
+            values = new IDESolver<>(lcp, icfg).solve();
+        } while (lcp.updateNonLinearValues(values));
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt stmt : icfg) {
+            CPFact in = newInitialFact();
+            values.getValues(stmt).forEach((var, value) -> {
+                if (!lcp.isZero(var)) {
+                    in.update(var, value);
+                }
+            });
+            // OUT facts are derived from IN facts by the node transfer
+            CPFact out = newInitialFact();
+            transferNode(stmt, in, out);
+            result.setInFact(stmt, in);
+            result.setOutFact(stmt, out);
+        }
+        return result;
+    }
+
     @Override
     public CPFact newBoundaryFact(Stmt boundary) {
         IR ir = icfg.getContainingMethodOf(boundary).getIR();
@@ -25,10 +25,12 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.icfg.ICFG;
 import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.collection.Maps;
 import pascal.taie.util.collection.SetQueue;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -49,10 +51,55 @@ class InterSolver<Method, Node, Fact> {
 
     private Queue<Node> workList;
 
+    /**
+     * Version stamps of OUT facts, which are increased whenever
+     * the OUT fact of a node changes. Only maintained if edge
+     * transfer results are cached.
+     */
+    private final Map<Node, Integer> outVersions = Maps.newMap();
+
+    /**
+     * Cached results of edge transfer functions, and the version
+     * of the source OUT fact that each result is computed from.
+     */
+    private final Map<ICFGEdge<Node>, Fact> edgeFacts = Maps.newMap();
+
+    private final Map<ICFGEdge<Node>, Integer> edgeVersions = Maps.newMap();
+
+    /**
+     * If true, facts are only allocated for the nodes that are reached
+     * from the entry methods, and the solver never asks for the whole
+     * ICFG, which allows a lazy ICFG to materialize reached methods only.
+     */
+    private final boolean isSparse;
+
+    /**
+     * If true, the work-list is a {@link MethodFirstWorkList}, which runs
+     * each method to its local fixpoint before switching to other methods.
+     */
+    private final boolean isMethodFirst;
+
+    /**
+     * If true, the results of edge transfer functions are cached and
+     * reused until the OUT facts of the edge sources change. This saves
+     * repeated transfers at nodes with many in-edges, at the cost of
+     * keeping one more fact per edge.
+     */
+    private final boolean isEdgeCached;
+
     InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
                 ICFG<Method, Node> icfg) {
+        this(analysis, icfg, false, false, false);
+    }
+
+    InterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                ICFG<Method, Node> icfg, boolean isSparse,
+                boolean isMethodFirst, boolean isEdgeCached) {
         this.analysis = analysis;
         this.icfg = icfg;
+        this.isSparse = isSparse;
+        this.isMethodFirst = isMethodFirst;
+        this.isEdgeCached = isEdgeCached;
     }
 
     DataflowResult<Node, Fact> solve() {
@@ -63,6 +110,11 @@ class InterSolver<Method, Node, Fact> {
     }
 
     private void initialize() {
+        if (isSparse) {
+            workList = newWorkList();
+            icfg.entryMethods().forEach(m -> reach(icfg.getEntryOf(m)));
+            return;
+        }
 //        List<Method> entries= this.icfg.entryMethods().toList();
 //        //先处理所有entry方法的entry结点
 //        for(Method method: entries){
@@ -82,9 +134,11 @@ class InterSolver<Method, Node, Fact> {
     private void doSolve() {
 //        LinkedList<Node> worklist = new LinkedList<>();
         //把所有节点加入worklist
-        workList = new LinkedList<>();
-        for(Node node:this.icfg){
-            workList.add(node);
+        if (!isSparse) {
+            workList = newWorkList();
+            for(Node node:this.icfg){
+                workList.add(node);
+            }
         }
         while(!workList.isEmpty()){
 //            if(worklist.size() > 6)
@@ -94,14 +148,60 @@ class InterSolver<Method, Node, Fact> {
             Set<ICFGEdge<Node>> list = this.icfg.getInEdgesOf(node);
             Fact in = result.getInFact(node);
             for(ICFGEdge<Node> pre: list){
-                analysis.meetInto(analysis.transferEdge(pre, result.getOutFact(pre.getSource())), in);
+                if (result.getOutFact(pre.getSource()) != null) { // skip unreached predecessors
+                    analysis.meetInto(transferEdge(pre), in);
+                }
             }
             boolean changeornot = analysis.transferNode(node, in, result.getOutFact(node));
             //如果改了就把所有后继加进去
             if(changeornot){
+                if (isEdgeCached) {
+                    outVersions.merge(node, 1, Integer::sum);
+                }
                 Set<Node> succs = this.icfg.getSuccsOf(node);
+                if (isSparse) {
+                    succs.forEach(this::reach);
+                }
                 workList.addAll(succs);
+            } else if (isSparse) {
+                // successors must be visited once even if nothing changed
+                this.icfg.getSuccsOf(node).forEach(this::reach);
             }
         }
     }
+
+    private Queue<Node> newWorkList() {
+        return isMethodFirst ?
+                new MethodFirstWorkList<>(icfg) : new LinkedList<>();
+    }
+
+    /**
+     * Allocates the facts of given node and adds it to the work-list
+     * when the node is reached for the first time.
+     */
+    private void reach(Node node) {
+        if (result.getInFact(node) == null) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+            workList.add(node);
+        }
+    }
+
+    /**
+     * Applies the edge transfer function on the OUT fact of the source
+     * of given edge. If edge caching is enabled, the result is cached
+     * and reused until the OUT fact of the source changes.
+     */
+    private Fact transferEdge(ICFGEdge<Node> edge) {
+        if (!isEdgeCached) {
+            return analysis.transferEdge(edge, result.getOutFact(edge.getSource()));
+        }
+        Integer version = outVersions.getOrDefault(edge.getSource(), 0);
+        if (!version.equals(edgeVersions.get(edge))) {
+            edgeFacts.put(edge, analysis.transferEdge(edge,
+                    result.getOutFact(edge.getSource())));
+            edgeVersions.put(edge, version);
+        }
+        return edgeFacts.get(edge);
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.NormalEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Two-level work-list for inter-procedural solvers.
+ * <p>
+ * The outer level is a priority queue of methods ordered by the reverse
+ * postorder of the call graph (callers before callees), and the inner level
+ * is a per-method priority queue of nodes ordered by the reverse postorder
+ * of the intra-procedural edges. The work-list keeps returning nodes of
+ * the current method until the method reaches its local fixpoint, and only
+ * then switches to the pending method with the lowest rank. Each node is
+ * held at most once.
+ */
+class MethodFirstWorkList<Method, Node> extends AbstractQueue<Node> {
+
+    private final ICFG<Method, Node> icfg;
+
+    private final Map<Method, Integer> methodRanks = Maps.newMap();
+
+    private final Map<Node, Integer> nodeRanks = Maps.newMap();
+
+    private final Map<Method, PriorityQueue<Node>> nodeQueues = Maps.newMap();
+
+    /**
+     * Methods that have pending nodes, except {@link #current}.
+     */
+    private final PriorityQueue<Method> methodQueue = new PriorityQueue<>(
+            Comparator.comparingInt(this::getMethodRank));
+
+    private final Set<Node> inQueue = Sets.newSet();
+
+    private Method current;
+
+    MethodFirstWorkList(ICFG<Method, Node> icfg) {
+        this.icfg = icfg;
+        rankMethods();
+    }
+
+    /**
+     * Ranks the methods reachable from the entry methods by reverse
+     * postorder of the call graph. The callees are obtained from the
+     * call graph, so that the edges of the ICFG are not built up front.
+     */
+    private void rankMethods() {
+        List<Method> postOrder = new ArrayList<>();
+        Set<Method> visited = Sets.newSet();
+        Deque<Method> stack = new ArrayDeque<>();
+        Deque<Iterator<Method>> callees = new ArrayDeque<>();
+        icfg.entryMethods().forEach(entry -> {
+            if (visited.add(entry)) {
+                stack.push(entry);
+                callees.push(icfg.getCalleesOfM(entry).iterator());
+            }
+            while (!stack.isEmpty()) {
+                Iterator<Method> it = callees.peek();
+                if (it.hasNext()) {
+                    Method callee = it.next();
+                    if (visited.add(callee)) {
+                        stack.push(callee);
+                        callees.push(icfg.getCalleesOfM(callee).iterator());
+                    }
+                } else {
+                    postOrder.add(stack.pop());
+                    callees.pop();
+                }
+            }
+        });
+        for (int i = postOrder.size() - 1; i >= 0; --i) {
+            methodRanks.put(postOrder.get(i), methodRanks.size());
+        }
+    }
+
+    /**
+     * Ranks the nodes of given method that are reachable from its entry
+     * via intra-procedural edges by reverse postorder.
+     */
+    private void rankNodes(Method method) {
+        List<Node> postOrder = new ArrayList<>();
+        Set<Node> visited = Sets.newSet();
+        Deque<Node> stack = new ArrayDeque<>();
+        Deque<Iterator<ICFGEdge<Node>>> edges = new ArrayDeque<>();
+        Node entry = icfg.getEntryOf(method);
+        visited.add(entry);
+        stack.push(entry);
+        edges.push(icfg.getOutEdgesOf(entry).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<ICFGEdge<Node>> it = edges.peek();
+            if (it.hasNext()) {
+                ICFGEdge<Node> edge = it.next();
+                if ((edge instanceof NormalEdge<Node> ||
+                        edge instanceof CallToReturnEdge<Node>) &&
+                        visited.add(edge.getTarget())) {
+                    stack.push(edge.getTarget());
+                    edges.push(icfg.getOutEdgesOf(edge.getTarget()).iterator());
+                }
+            } else {
+                postOrder.add(stack.pop());
+                edges.pop();
+            }
+        }
+        for (int i = postOrder.size() - 1; i >= 0; --i) {
+            nodeRanks.put(postOrder.get(i), nodeRanks.size());
+        }
+    }
+
+    private int getMethodRank(Method method) {
+        return methodRanks.get(method);
+    }
+
+    private int getNodeRank(Node node) {
+        return nodeRanks.get(node);
+    }
+
+    /**
+     * Returns the node queue of given method. The nodes of a method are
+     * ranked when its queue is created, i.e., when the method first
+     * receives a node.
+     */
+    private PriorityQueue<Node> getNodeQueue(Method method) {
+        return nodeQueues.computeIfAbsent(method, m -> {
+            // methods unreachable from the entries are ranked on demand
+            methodRanks.putIfAbsent(m, methodRanks.size());
+            rankNodes(m);
+            return new PriorityQueue<>(Comparator.comparingInt(this::getNodeRank));
+        });
+    }
+
+    @Override
+    public boolean offer(Node node) {
+        if (inQueue.add(node)) {
+            Method method = icfg.getContainingMethodOf(node);
+            PriorityQueue<Node> queue = getNodeQueue(method);
+            // nodes unreachable from the entry are ranked on demand
+            nodeRanks.putIfAbsent(node, nodeRanks.size());
+            if (queue.isEmpty() && method != current) {
+                methodQueue.add(method);
+            }
+            queue.add(node);
+        }
+        return true;
+    }
+
+    @Override
+    public Node poll() {
+        if (current == null || nodeQueues.get(current).isEmpty()) {
+            current = methodQueue.poll();
+            if (current == null) {
+                return null;
+            }
+        }
+        Node node = nodeQueues.get(current).poll();
+        inQueue.remove(node);
+        return node;
+    }
+
+    @Override
+    public Node peek() {
+        if (current != null && !nodeQueues.get(current).isEmpty()) {
+            return nodeQueues.get(current).peek();
+        }
+        Method next = methodQueue.peek();
+        return next == null ? null : nodeQueues.get(next).peek();
+    }
+
+    @Override
+    public Iterator<Node> iterator() {
+        return Collections.unmodifiableSet(inQueue).iterator();
+    }
+
+    @Override
+    public int size() {
+        return inQueue.size();
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Parallel solver for inter-procedural data-flow analysis.
+ * <p>
+ * The ICFG is partitioned by the strongly-connected components of the
+ * call graph, and the components are grouped into <i>waves</i> by their
+ * depth in the component DAG, so that there are no edges between the
+ * components of the same wave. The solver repeatedly sweeps the waves
+ * from callers to callees, and solves the components of each wave
+ * concurrently on a fork-join pool, until no component has pending work.
+ * <p>
+ * Each component is solved by one thread at a time, and it only touches
+ * the facts of its own nodes. Facts that flow along the call and return
+ * edges between components are handed off as snapshots: the owner of the
+ * source node publishes the edge-transferred fact into a concurrent map,
+ * and puts the target node into the lock-free inbox of the target
+ * component.
+ */
+class ParallelInterSolver<Method, Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final int parallelism;
+
+    private DataflowResult<Node, Fact> result;
+
+    private final Map<Node, Component> owners = Maps.newMap();
+
+    /**
+     * Edge-transferred facts of the edges between components.
+     */
+    private final ConcurrentMap<ICFGEdge<Node>, Fact> handoffs =
+            Maps.newConcurrentMap();
+
+    private final List<List<Component>> waves = new ArrayList<>();
+
+    ParallelInterSolver(InterDataflowAnalysis<Node, Fact> analysis,
+                        ICFG<Method, Node> icfg, int parallelism) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.parallelism = parallelism;
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        result = new DataflowResult<>();
+        initialize();
+        doSolve();
+        return result;
+    }
+
+    private void initialize() {
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        buildComponents();
+        // publishes the initial facts of the edges between components
+        for (Node node : icfg) {
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                if (owners.get(edge.getTarget()) != owners.get(node)) {
+                    publish(edge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Partitions the ICFG by call graph SCCs, and groups the components
+     * into waves by the length of the longest path from root components.
+     */
+    private void buildComponents() {
+        SimpleGraph<Method> callGraph = new SimpleGraph<>();
+        for (Node node : icfg) {
+            Method method = icfg.getContainingMethodOf(node);
+            callGraph.addNode(method);
+            if (icfg.isCallSite(node)) {
+                for (Method callee : icfg.getCalleesOf(node)) {
+                    callGraph.addEdge(method, callee);
+                }
+            }
+        }
+        // sort the SCCs in topological order, i.e., callers before callees
+        List<List<Method>> sccs = new TopoSorter<>(new MergedSCCGraph<>(callGraph))
+                .get()
+                .stream()
+                .map(MergedNode::getNodes)
+                .toList();
+        Map<Method, Component> components = Maps.newMap();
+        List<Component> sorted = new ArrayList<>(sccs.size());
+        for (List<Method> scc : sccs) {
+            Component component = new Component();
+            scc.forEach(m -> components.put(m, component));
+            sorted.add(component);
+        }
+        for (Node node : icfg) {
+            Component component = components.get(icfg.getContainingMethodOf(node));
+            owners.put(node, component);
+            // initially, all nodes are in the work-list
+            component.workList.add(node);
+        }
+        // the wave of each component is final when it is visited,
+        // as all its callers precede it in topological order
+        for (List<Method> scc : sccs) {
+            Component component = components.get(scc.get(0));
+            for (Method method : scc) {
+                for (Method callee : callGraph.getSuccsOf(method)) {
+                    Component calleeComponent = components.get(callee);
+                    if (calleeComponent != component) {
+                        calleeComponent.wave = Math.max(
+                                calleeComponent.wave, component.wave + 1);
+                    }
+                }
+            }
+        }
+        for (Component component : sorted) {
+            while (waves.size() <= component.wave) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(component.wave).add(component);
+        }
+    }
+
+    private void doSolve() {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            boolean hasWork;
+            do {
+                hasWork = false;
+                for (List<Component> wave : waves) {
+                    List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                    for (Component component : wave) {
+                        if (component.hasWork()) {
+                            tasks.add(ForkJoinTask.adapt(component::solve));
+                        }
+                    }
+                    if (!tasks.isEmpty()) {
+                        hasWork = true;
+                        pool.invoke(ForkJoinTask.adapt(() -> {
+                            ForkJoinTask.invokeAll(tasks);
+                        }));
+                    }
+                }
+            } while (hasWork);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Publishes the fact of given edge between components,
+     * and notifies the component of the target node.
+     */
+    private void publish(ICFGEdge<Node> edge) {
+        // the edge transfer may modify its argument, thus we pass a copy
+        Fact fact = analysis.transferEdge(edge, copy(result.getOutFact(edge.getSource())));
+        if (fact != null) {
+            handoffs.put(edge, fact);
+        }
+        owners.get(edge.getTarget()).inbox.add(edge.getTarget());
+    }
+
+    private Fact copy(Fact fact) {
+        Fact copy = analysis.newInitialFact();
+        analysis.meetInto(fact, copy);
+        return copy;
+    }
+
+    /**
+     * A strongly-connected component of the call graph, together with
+     * its own work-list of ICFG nodes.
+     */
+    private class Component {
+
+        private int wave = 0;
+
+        private final Queue<Node> workList = new SetQueue<>();
+
+        private final Queue<Node> inbox = new ConcurrentLinkedQueue<>();
+
+        private boolean hasWork() {
+            return !workList.isEmpty() || !inbox.isEmpty();
+        }
+
+        private void solve() {
+            Node n;
+            while ((n = inbox.poll()) != null) {
+                workList.add(n);
+            }
+            while (!workList.isEmpty()) {
+                Node node = workList.poll();
+                Fact in = result.getInFact(node);
+                for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                    Fact fact = owners.get(edge.getSource()) == this ?
+                            analysis.transferEdge(edge, result.getOutFact(edge.getSource())) :
+                            handoffs.get(edge);
+                    if (fact != null) {
+                        analysis.meetInto(fact, in);
+                    }
+                }
+                if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                    for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                        if (owners.get(edge.getTarget()) == this) {
+                            workList.add(edge.getTarget());
+                        } else {
+                            publish(edge);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,335 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
+import pascal.taie.analysis.graph.icfg.CallEdge;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGEdge;
+import pascal.taie.analysis.graph.icfg.ReturnEdge;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.SetQueue;
+import pascal.taie.util.graph.MergedNode;
+import pascal.taie.util.graph.MergedSCCGraph;
+import pascal.taie.util.graph.SimpleGraph;
+import pascal.taie.util.graph.TopoSorter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+
+/**
+ * Summary-based solver for inter-procedural data-flow analysis.
+ * <p>
+ * Instead of solving the whole ICFG as one graph, this solver analyzes
+ * each method in a <i>context</i>, i.e., a distinct fact at the method
+ * entry, and memoizes the fact at the method exit as the summary of the
+ * context. At a call site, the entry fact of the callee is computed by
+ * the call edge transfer, and the summary of the corresponding context
+ * is instantiated by the return edge transfer. Thus, a method that is
+ * called from many sites with the same entry fact is analyzed only once.
+ * <p>
+ * Contexts are scheduled bottom-up over the strongly-connected components
+ * of the call graph, so that callee summaries are usually available
+ * before their callers consume them. To ensure termination, calls inside
+ * the same component (i.e., recursive calls) and calls to methods which
+ * already have {@code contextLimit} contexts are analyzed in a single
+ * merged context of the callee, whose entry fact is the meet of all
+ * such entry facts.
+ * <p>
+ * The fact of each node in the final result is the meet of its facts
+ * in all contexts.
+ */
+class SummarySolver<Method, Node, Fact> {
+
+    private final InterDataflowAnalysis<Node, Fact> analysis;
+
+    private final ICFG<Method, Node> icfg;
+
+    private final int contextLimit;
+
+    /**
+     * Nodes of each method.
+     */
+    private final Map<Method, List<Node>> nodesOf = Maps.newMap();
+
+    /**
+     * Position of each method in bottom-up order of call graph SCCs.
+     */
+    private final Map<Method, Integer> ranks;
+
+    private final Map<Method, Map<Fact, Context>> contexts = Maps.newMap();
+
+    private final Map<Method, Context> mergedContexts = Maps.newMap();
+
+    private final Queue<Context> contextQueue = new PriorityQueue<>(
+            Comparator.comparingInt((Context c) -> c.rank)
+                    .thenComparingInt(c -> c.id));
+
+    private int contextCounter = 0;
+
+    SummarySolver(InterDataflowAnalysis<Node, Fact> analysis,
+                  ICFG<Method, Node> icfg, int contextLimit) {
+        this.analysis = analysis;
+        this.icfg = icfg;
+        this.contextLimit = contextLimit;
+        this.ranks = rankMethods(icfg);
+    }
+
+    DataflowResult<Node, Fact> solve() {
+        initialize();
+        icfg.entryMethods().forEach(method -> {
+            Node entry = icfg.getEntryOf(method);
+            getContext(method, analysis.newBoundaryFact(entry), false);
+        });
+        while (!contextQueue.isEmpty()) {
+            Context context = contextQueue.poll();
+            context.inQueue = false;
+            solve(context);
+        }
+        return collectResult();
+    }
+
+    /**
+     * Groups nodes by methods.
+     */
+    private void initialize() {
+        for (Node node : icfg) {
+            nodesOf.computeIfAbsent(icfg.getContainingMethodOf(node),
+                    m -> new ArrayList<>()).add(node);
+        }
+    }
+
+    /**
+     * Ranks methods by the bottom-up order of the SCCs of the call graph,
+     * i.e., callees have smaller ranks than their callers, and methods
+     * in the same SCC have the same rank.
+     */
+    static <Method, Node> Map<Method, Integer> rankMethods(ICFG<Method, Node> icfg) {
+        SimpleGraph<Method> callGraph = new SimpleGraph<>();
+        for (Node node : icfg) {
+            Method method = icfg.getContainingMethodOf(node);
+            callGraph.addNode(method);
+            if (icfg.isCallSite(node)) {
+                for (Method callee : icfg.getCalleesOf(node)) {
+                    callGraph.addEdge(method, callee);
+                }
+            }
+        }
+        // sort the SCCs in reverse topological order, i.e.,
+        // callees before callers, and rank methods by their SCCs
+        List<MergedNode<Method>> components = new TopoSorter<>(
+                new MergedSCCGraph<>(callGraph), true).get();
+        Map<Method, Integer> ranks = Maps.newMap(callGraph.getNumberOfNodes());
+        for (int i = 0; i < components.size(); ++i) {
+            for (Method method : components.get(i).getNodes()) {
+                ranks.put(method, i);
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * @return the context of given method for given entry fact.
+     */
+    private Context getContext(Method method, Fact entryFact, boolean recursive) {
+        Map<Fact, Context> methodContexts = contexts.computeIfAbsent(
+                method, m -> Maps.newHybridMap());
+        Context context = methodContexts.get(entryFact);
+        if (context != null) {
+            return context;
+        }
+        if (recursive || methodContexts.size() >= contextLimit) {
+            return getMergedContext(method, entryFact);
+        }
+        Fact key = copy(entryFact);
+        context = new Context(method, key);
+        methodContexts.put(key, context);
+        enqueue(context);
+        return context;
+    }
+
+    private Context getMergedContext(Method method, Fact entryFact) {
+        Context merged = mergedContexts.get(method);
+        if (merged == null) {
+            merged = new Context(method, copy(entryFact));
+            mergedContexts.put(method, merged);
+            enqueue(merged);
+        } else {
+            Fact old = copy(merged.entryFact);
+            analysis.meetInto(entryFact, merged.entryFact);
+            if (!old.equals(merged.entryFact)) {
+                merged.workList.add(icfg.getEntryOf(method));
+                enqueue(merged);
+            }
+        }
+        return merged;
+    }
+
+    private void enqueue(Context context) {
+        if (!context.inQueue) {
+            context.inQueue = true;
+            contextQueue.add(context);
+        }
+    }
+
+    /**
+     * Solves given context to a local fixed point.
+     */
+    private void solve(Context context) {
+        Node entry = icfg.getEntryOf(context.method);
+        Node exit = icfg.getExitOf(context.method);
+        DataflowResult<Node, Fact> result = context.result;
+        while (!context.workList.isEmpty()) {
+            Node node = context.workList.poll();
+            Fact in = result.getInFact(node);
+            if (node.equals(entry)) {
+                analysis.meetInto(context.entryFact, in);
+            } else {
+                for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node)) {
+                    if (edge instanceof ReturnEdge<Node> returnEdge) {
+                        Fact summary = applySummary(context, returnEdge);
+                        if (summary != null) {
+                            analysis.meetInto(summary, in);
+                        }
+                    } else if (!(edge instanceof CallEdge)) {
+                        analysis.meetInto(analysis.transferEdge(edge,
+                                result.getOutFact(edge.getSource())), in);
+                    }
+                }
+            }
+            if (analysis.transferNode(node, in, result.getOutFact(node))) {
+                for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node)) {
+                    if (!(edge instanceof CallEdge) &&
+                            !(edge instanceof ReturnEdge)) {
+                        context.workList.add(edge.getTarget());
+                    }
+                }
+                if (node.equals(exit)) {
+                    // summary changed, the callers need to re-instantiate it
+                    context.returnSites.forEach((caller, returnSite) -> {
+                        caller.workList.add(returnSite);
+                        enqueue(caller);
+                    });
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the entry fact of the callee of given return edge,
+     * and instantiates the summary of the corresponding context.
+     *
+     * @return the instantiated summary, or null if the call edge
+     * is not found.
+     */
+    private Fact applySummary(Context caller, ReturnEdge<Node> returnEdge) {
+        Node callSite = returnEdge.getCallSite();
+        Node calleeEntry = icfg.getEntryOf(
+                icfg.getContainingMethodOf(returnEdge.getSource()));
+        for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(callSite)) {
+            if (edge instanceof CallEdge && edge.getTarget().equals(calleeEntry)) {
+                Method callee = icfg.getContainingMethodOf(calleeEntry);
+                Fact entryFact = analysis.transferEdge(edge,
+                        caller.result.getOutFact(callSite));
+                boolean recursive = ranks.get(callee).equals(
+                        ranks.get(caller.method));
+                Context context = getContext(callee, entryFact, recursive);
+                context.returnSites.put(caller, returnEdge.getTarget());
+                Fact summary = context.result.getOutFact(returnEdge.getSource());
+                // return edge transfer may modify its argument
+                return analysis.transferEdge(returnEdge, copy(summary));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Merges the facts of all contexts of each method into the final result.
+     */
+    private DataflowResult<Node, Fact> collectResult() {
+        DataflowResult<Node, Fact> result = new DataflowResult<>();
+        for (Node node : icfg) {
+            result.setInFact(node, analysis.newInitialFact());
+            result.setOutFact(node, analysis.newInitialFact());
+        }
+        List<Context> allContexts = new ArrayList<>(mergedContexts.values());
+        contexts.values().forEach(m -> allContexts.addAll(m.values()));
+        for (Context context : allContexts) {
+            for (Node node : nodesOf.get(context.method)) {
+                analysis.meetInto(context.result.getInFact(node),
+                        result.getInFact(node));
+                analysis.meetInto(context.result.getOutFact(node),
+                        result.getOutFact(node));
+            }
+        }
+        return result;
+    }
+
+    private Fact copy(Fact fact) {
+        Fact copy = analysis.newInitialFact();
+        analysis.meetInto(fact, copy);
+        return copy;
+    }
+
+    /**
+     * A method analyzed under a specific entry fact.
+     */
+    private class Context {
+
+        private final int id = contextCounter++;
+
+        private final Method method;
+
+        private final int rank;
+
+        private final Fact entryFact;
+
+        private final DataflowResult<Node, Fact> result = new DataflowResult<>();
+
+        private final Queue<Node> workList = new SetQueue<>();
+
+        /**
+         * Caller contexts and the return sites where the summary
+         * of this context has been instantiated.
+         */
+        private final MultiMap<Context, Node> returnSites = Maps.newMultiMap();
+
+        private boolean inQueue = false;
+
+        private Context(Method method, Fact entryFact) {
+            this.method = method;
+            this.rank = ranks.get(method);
+            this.entryFact = entryFact;
+            for (Node node : nodesOf.get(method)) {
+                result.setInFact(node, analysis.newInitialFact());
+                result.setOutFact(node, analysis.newInitialFact());
+                workList.add(node);
+            }
+        }
+    }
+}
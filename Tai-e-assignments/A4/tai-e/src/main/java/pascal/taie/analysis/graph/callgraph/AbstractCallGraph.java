@@ -119,6 +119,14 @@ public abstract class AbstractCallGraph<CallSite, Method>
         return reachableMethods.contains(method);
     }
 
+    /**
+     * @return an immutable snapshot of this call graph, which answers
+     * queries by arrays instead of (multi-)maps.
+     */
+    public FrozenCallGraph<CallSite, Method> freeze() {
+        return new FrozenCallGraph<>(this);
+    }
+
     // Implementation for Graph interface.
 
     @Override
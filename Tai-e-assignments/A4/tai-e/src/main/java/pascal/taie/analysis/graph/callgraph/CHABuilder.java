@@ -22,6 +22,8 @@
 
 package pascal.taie.analysis.graph.callgraph;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import pascal.taie.World;
 import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Invoke;
@@ -30,20 +32,117 @@ import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.classes.Subsignature;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
 
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the CHA algorithm.
  */
 class CHABuilder implements CGBuilder<Invoke, JMethod> {
 
+    private static final Logger logger = LogManager.getLogger(CHABuilder.class);
+
     private ClassHierarchy hierarchy;
 
+    /**
+     * Cache of resolved call targets. Call sites that share the call kind,
+     * declaring class and subsignature of their method references have the
+     * same targets, so each distinct target is resolved only once, and
+     * the (unmodifiable) target sets are shared by such call sites.
+     */
+    private final Map<Target, Set<JMethod>> targets = Maps.newConcurrentMap();
+
+    /**
+     * If true, builds the call graph with {@link #parallelism} threads.
+     */
+    private final boolean isParallel;
+
+    private final int parallelism;
+
+    /**
+     * File of precomputed library fragments, or null if library
+     * fragments are not used.
+     */
+    private final @Nullable Path fragmentsFile;
+
+    /**
+     * Library fragments loaded from {@link #fragmentsFile}, or null if
+     * they are not available (and are going to be computed in this run).
+     */
+    private @Nullable LibraryFragments fragments;
+
+    /**
+     * Cache of call targets dispatched on application types,
+     * which complement the targets in library fragments.
+     */
+    private final Map<Target, Set<JMethod>> applicationTargets = Maps.newConcurrentMap();
+
+    /**
+     * Cache of call targets dispatched on library types,
+     * used when computing library fragments.
+     */
+    private final Map<Target, Set<JMethod>> libraryTargets = Maps.newMap();
+
+    /**
+     * Virtual and interface call sites in the call graph, grouped by the
+     * declaring classes of their method references. Built on the first
+     * incremental update and maintained by subsequent updates.
+     */
+    private MultiMap<JClass, Invoke> callSitesByClass;
+
+    CHABuilder(boolean isParallel, int parallelism, @Nullable Path fragmentsFile) {
+        this.isParallel = isParallel;
+        this.parallelism = parallelism;
+        this.fragmentsFile = fragmentsFile;
+    }
+
+    private record Target(CallKind kind, JClass declaringClass,
+                          Subsignature subsignature) {
+    }
+
     @Override
     public CallGraph<Invoke, JMethod> build() {
         hierarchy = World.get().getClassHierarchy();
-        return buildCallGraph(World.get().getMainMethod());
+        if (fragmentsFile != null && Files.exists(fragmentsFile)) {
+            fragments = LibraryFragments.load(fragmentsFile, hierarchy);
+            if (fragments != null) {
+                logger.info("Loaded library fragments of {} methods from {}",
+                        fragments.size(), fragmentsFile);
+            }
+        }
+        CallGraph<Invoke, JMethod> callGraph = isParallel ?
+                buildCallGraphInParallel(World.get().getMainMethod()) :
+                buildCallGraph(World.get().getMainMethod());
+        if (fragmentsFile != null && fragments == null) {
+            saveFragments(callGraph);
+        }
+        return callGraph;
+    }
+
+    /**
+     * Computes the library fragments of the reachable library methods
+     * and saves them to {@link #fragmentsFile}.
+     */
+    private void saveFragments(CallGraph<Invoke, JMethod> callGraph) {
+        logger.info("Saving library fragments to {} ...", fragmentsFile);
+        try {
+            LibraryFragments.write(fragmentsFile, hierarchy, callGraph,
+                    callSite -> resolve(callSite, libraryTargets,
+                            LibraryFragments::isLibrary));
+        } catch (IOException e) {
+            logger.warn("Failed to save library fragments to {}, caused by {}",
+                    fragmentsFile, e);
+        }
     }
 
     private CallGraph<Invoke, JMethod> buildCallGraph(JMethod entry) {
@@ -73,10 +172,222 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         return callGraph;
     }
 
+    /**
+     * Builds the call graph level by level. The methods that become reachable
+     * in one level are scanned and their call sites are resolved on a
+     * fork-join pool. Every call site is resolved by exactly one task, so
+     * the callees are recorded in a concurrent map from call sites to their
+     * (shared) target sets, and reachable methods in a concurrent set.
+     * Finally, the call graph is populated sequentially in the order of
+     * method signatures, so the result does not depend on scheduling.
+     * <p>
+     * The IR of the methods of each level is obtained before the parallel
+     * scan, as IR may be built lazily and IR building is not thread-safe.
+     */
+    private CallGraph<Invoke, JMethod> buildCallGraphInParallel(JMethod entry) {
+        Set<JMethod> reachable = ConcurrentHashMap.newKeySet();
+        Map<Invoke, Set<JMethod>> callees = Maps.newConcurrentMap();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            reachable.add(entry);
+            List<JMethod> level = List.of(entry);
+            while (!level.isEmpty()) {
+                List<JMethod> methods = level;
+                methods.forEach(method -> {
+                    if (!method.isAbstract()) {
+                        method.getIR();
+                    }
+                });
+                level = pool.submit(() -> methods.parallelStream()
+                                .flatMap(method -> scan(method, reachable, callees))
+                                .toList())
+                        .join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        DefaultCallGraph callGraph = new DefaultCallGraph();
+        callGraph.addEntryMethod(entry);
+        Comparator<JMethod> cmp = Comparator.comparing(JMethod::toString);
+        reachable.stream().sorted(cmp).forEach(method -> {
+            callGraph.addReachableMethod(method);
+            callGraph.callSitesIn(method).forEach(invoke ->
+                    callees.getOrDefault(invoke, Set.of())
+                            .stream()
+                            .sorted(cmp)
+                            .forEach(callee -> callGraph.addEdge(new Edge<>(
+                                    CallGraphs.getCallKind(invoke), invoke, callee))));
+        });
+        return callGraph;
+    }
+
+    /**
+     * Updates given call graph for the classes newly added to the class
+     * hierarchy. Adding a class may only add dispatch targets to the call
+     * sites whose declaring classes are its supertypes, so the cached
+     * targets of such call sites are invalidated, each of them gains the
+     * dispatch target on the new class, and the new reachable methods
+     * are processed as in {@link #buildCallGraph(JMethod)}.
+     *
+     * @return the changes made to the call graph.
+     */
+    CallGraphDelta update(DefaultCallGraph callGraph, Collection<JClass> newClasses) {
+        if (hierarchy == null) {
+            hierarchy = World.get().getClassHierarchy();
+        }
+        if (callSitesByClass == null) {
+            callSitesByClass = Maps.newMultiMap();
+            callGraph.reachableMethods().forEach(method ->
+                    callGraph.callSitesIn(method).forEach(this::indexCallSite));
+        }
+        if (newClasses.stream().anyMatch(LibraryFragments::isLibrary)) {
+            fragments = null; // fragments do not cover new library classes
+        }
+        List<JMethod> newMethods = new ArrayList<>();
+        List<Edge<Invoke, JMethod>> newEdges = new ArrayList<>();
+        Queue<JMethod> workList = new ArrayDeque<>();
+        Map<JClass, List<JClass>> supertypes = new LinkedHashMap<>();
+        newClasses.forEach(c -> supertypes.put(c, getSupertypes(c)));
+        Set<JClass> affected = new HashSet<>();
+        supertypes.values().forEach(affected::addAll);
+        Predicate<Target> isStale = t -> affected.contains(t.declaringClass()) &&
+                (t.kind() == CallKind.VIRTUAL || t.kind() == CallKind.INTERFACE);
+        targets.keySet().removeIf(isStale);
+        applicationTargets.keySet().removeIf(isStale);
+        for (JClass newClass : newClasses) {
+            for (JClass supertype : supertypes.get(newClass)) {
+                for (Invoke callSite : callSitesByClass.get(supertype)) {
+                    JMethod target = dispatch(newClass,
+                            callSite.getMethodRef().getSubsignature());
+                    if (target != null && !target.isAbstract()) {
+                        addEdge(callGraph, new Edge<>(CallGraphs.getCallKind(callSite),
+                                callSite, target), newEdges, workList);
+                    }
+                }
+            }
+        }
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            if (callGraph.addReachableMethod(method)) {
+                newMethods.add(method);
+                callGraph.callSitesIn(method).forEach(callSite -> {
+                    indexCallSite(callSite);
+                    for (JMethod target : resolve(callSite)) {
+                        addEdge(callGraph, new Edge<>(CallGraphs.getCallKind(callSite),
+                                callSite, target), newEdges, workList);
+                    }
+                });
+            }
+        }
+        return new CallGraphDelta(Collections.unmodifiableList(newMethods),
+                Collections.unmodifiableList(newEdges));
+    }
+
+    private void indexCallSite(Invoke callSite) {
+        if (callSite.isVirtual() || callSite.isInterface()) {
+            callSitesByClass.put(callSite.getMethodRef().getDeclaringClass(), callSite);
+        }
+    }
+
+    private static void addEdge(DefaultCallGraph callGraph, Edge<Invoke, JMethod> edge,
+                                List<Edge<Invoke, JMethod>> newEdges,
+                                Queue<JMethod> workList) {
+        if (callGraph.addEdge(edge)) {
+            newEdges.add(edge);
+            if (!callGraph.contains(edge.getCallee())) {
+                workList.add(edge.getCallee());
+            }
+        }
+    }
+
+    /**
+     * @return given class and all its superclasses and superinterfaces.
+     */
+    private static List<JClass> getSupertypes(JClass jclass) {
+        List<JClass> supertypes = new ArrayList<>();
+        Set<JClass> visited = new HashSet<>();
+        Deque<JClass> stack = new ArrayDeque<>();
+        stack.push(jclass);
+        while (!stack.isEmpty()) {
+            JClass c = stack.pop();
+            if (visited.add(c)) {
+                supertypes.add(c);
+                if (c.getSuperClass() != null) {
+                    stack.push(c.getSuperClass());
+                }
+                c.getInterfaces().forEach(stack::push);
+            }
+        }
+        return supertypes;
+    }
+
+    /**
+     * Resolves the call sites in given method.
+     *
+     * @return the callees that become reachable.
+     */
+    private Stream<JMethod> scan(JMethod method, Set<JMethod> reachable,
+                                 Map<Invoke, Set<JMethod>> callees) {
+        if (method.isAbstract()) {
+            return Stream.empty();
+        }
+        List<JMethod> newMethods = new ArrayList<>();
+        for (Stmt stmt : method.getIR().getStmts()) {
+            if (stmt instanceof Invoke invoke) {
+                Set<JMethod> callSiteTargets = resolve(invoke);
+                callees.put(invoke, callSiteTargets);
+                for (JMethod target : callSiteTargets) {
+                    if (reachable.add(target)) {
+                        newMethods.add(target);
+                    }
+                }
+            }
+        }
+        return newMethods.stream();
+    }
+
     /**
      * Resolves call targets (callees) of a call site via CHA.
+     * The results are cached in {@link #targets}. If the call site
+     * has a library fragment, then only the targets dispatched on
+     * application types are resolved, and they are cached in
+     * {@link #applicationTargets}.
      */
     private Set<JMethod> resolve(Invoke callSite) {
+        Set<JMethod> fragmentTargets = fragments == null ? null :
+                fragments.getTargets(callSite);
+        if (fragmentTargets != null) {
+            if (!callSite.isVirtual() && !callSite.isInterface()) {
+                return fragmentTargets;
+            }
+            Set<JMethod> appTargets = resolve(callSite, applicationTargets,
+                    JClass::isApplication);
+            if (appTargets.isEmpty()) {
+                return fragmentTargets;
+            }
+            Set<JMethod> result = new HashSet<>(fragmentTargets);
+            result.addAll(appTargets);
+            return result;
+        }
+        return resolve(callSite, targets, __ -> true);
+    }
+
+    /**
+     * Resolves call targets of a call site, which are dispatched on the
+     * subtypes satisfying given filter, and caches the results in given map.
+     */
+    private Set<JMethod> resolve(Invoke callSite, Map<Target, Set<JMethod>> cache,
+                                 Predicate<JClass> subtypeFilter) {
+        MethodRef methodRef = callSite.getMethodRef();
+        return cache.computeIfAbsent(new Target(
+                        CallGraphs.getCallKind(callSite),
+                        methodRef.getDeclaringClass(),
+                        methodRef.getSubsignature()),
+                __ -> Collections.unmodifiableSet(
+                        resolveTargets(callSite, subtypeFilter)));
+    }
+
+    private Set<JMethod> resolveTargets(Invoke callSite, Predicate<JClass> subtypeFilter) {
         // TODO - finish me
         Set<JMethod> res =  new HashSet<>();
         MethodRef methodRef = callSite.getMethodRef();
@@ -96,19 +407,13 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
         }
         else if(callSite.isVirtual() || callSite.isInterface()){
             JClass declaringClass = callSite.getMethodRef().getDeclaringClass();
-            Queue<JClass> classList = new LinkedList<>();
-            classList.add(declaringClass);
-            //先加入直接子类，然后再递归加子类的子类，这样可以避免重复
-            while(!classList.isEmpty()){
-                JClass top = classList.remove();
-                if(top.isInterface()){
-                    classList.addAll(hierarchy.getDirectSubinterfacesOf(top));
-                    classList.addAll(hierarchy.getDirectImplementorsOf(top));
-                }else{
-                    classList.addAll(hierarchy.getDirectSubclassesOf(top));
+            // all subclasses, subinterfaces and implementors of the declaring
+            // class (including itself), then add the results of dispatch
+            for (JClass subtype : hierarchy.getAllSubtypesOf(declaringClass)) {
+                if (!subtypeFilter.test(subtype)) {
+                    continue;
                 }
-                //然后把dispatch的结果加进去
-                JMethod method = dispatch(top, methodRef.getSubsignature());
+                JMethod method = dispatch(subtype, methodRef.getSubsignature());
                 if(method!= null && !method.isAbstract())
                     res.add(method);
             }
@@ -124,12 +429,7 @@ class CHABuilder implements CGBuilder<Invoke, JMethod> {
      */
     private JMethod dispatch(JClass jclass, Subsignature subsignature) {
         // TODO - finish me
-        //首先查找自己有没有
-        if(jclass.getDeclaredMethod(subsignature) != null)
-            return jclass.getDeclaredMethod(subsignature);
-        if(jclass.getSuperClass() != null)
-            return dispatch(jclass.getSuperClass(), subsignature);
-        //都没有找到就返回null
-        return null;
+        // the class hierarchy caches the results (including null)
+        return hierarchy.dispatch(jclass, subsignature);
     }
 }
@@ -32,6 +32,7 @@ import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.language.classes.ClassHierarchyImpl;
 import pascal.taie.language.classes.JMethod;
 
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Comparator;
 
@@ -46,6 +47,12 @@ public class CallGraphBuilder extends ProgramAnalysis {
      */
     private static final String SEP = " -> ";
 
+    /**
+     * Default maximum number of methods sorted in memory when
+     * writing call graph reports.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 10000;
+
     private final String algorithm;
 
     public CallGraphBuilder(AnalysisConfig config) {
@@ -55,15 +62,34 @@ public class CallGraphBuilder extends ProgramAnalysis {
 
     @Override
     public CallGraph<Invoke, JMethod> analyze() {
+        String load = getOptions().getString("load");
+        if (load != null) {
+            logger.info("Loading call graph from {} ...", load);
+            CallGraph<Invoke, JMethod> callGraph = MappedCallGraph.load(Path.of(load));
+            takeAction(callGraph);
+            return callGraph;
+        }
         CGBuilder<Invoke, JMethod> builder;
         if (algorithm.equals("cha")) {
-            builder = new CHABuilder();
+            int parallelism = getOptions().get("parallelism") != null ?
+                    getOptions().getInt("parallelism") :
+                    Runtime.getRuntime().availableProcessors();
+            String fragments = getOptions().getString("library-fragments");
+            builder = new CHABuilder(
+                    getOptions().getBooleanOrDefault("parallel", false),
+                    parallelism, fragments != null ? Path.of(fragments) : null);
+        } else if (algorithm.equals("rta")) {
+            builder = new RTABuilder();
         } else {
             throw new ConfigException("Unknown call graph building algorithm: " + algorithm);
         }
         ClassHierarchyImpl.setCheckCHA(true);
         CallGraph<Invoke, JMethod> callGraph = builder.build();
         ClassHierarchyImpl.setCheckCHA(false);
+        if (getOptions().getBooleanOrDefault("freeze", false) &&
+                callGraph instanceof AbstractCallGraph<Invoke, JMethod> cg) {
+            callGraph = cg.freeze();
+        }
         takeAction(callGraph);
         return callGraph;
     }
@@ -74,12 +100,32 @@ public class CallGraphBuilder extends ProgramAnalysis {
             return;
         }
         if (action.equals("dump")) {
-            logCallGraph(callGraph);
+            if ("summary".equals(getOptions().getString("log"))) {
+                CallGraphReporter.logSummary(callGraph, getSample());
+            } else {
+                logCallGraph(callGraph);
+            }
             String file = getOptions().getString("file");
             CallGraphs.dumpCallGraph(callGraph, file);
+        } else if (action.equals("report")) {
+            CallGraphReporter.logSummary(callGraph, getSample());
+            int chunkSize = getOptions().get("chunk-size") != null ?
+                    getOptions().getInt("chunk-size") : DEFAULT_CHUNK_SIZE;
+            CallGraphs.reportCallGraph(callGraph, getOptions().getString("file"),
+                    chunkSize);
+        } else if (action.equals("save")) {
+            CallGraphs.saveCallGraph(callGraph, getOptions().getString("file"));
         }
     }
 
+    /**
+     * @return the number of methods sampled in summary logging.
+     */
+    private int getSample() {
+        return getOptions().get("sample") != null ?
+                getOptions().getInt("sample") : 0;
+    }
+
     static void logCallGraph(CallGraph<Invoke, JMethod> callGraph) {
         Comparator<JMethod> cmp = Comparator.comparing(JMethod::toString);
         logger.info("#reachable methods: {}", callGraph.getNumberOfMethods());
@@ -0,0 +1,410 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes reports of call graphs in bounded memory.
+ * <p>
+ * The full report has the same content as the one logged by
+ * {@link CallGraphBuilder#logCallGraph(CallGraph)}, i.e., sorted reachable
+ * methods and call edges. Reachable methods are processed in chunks:
+ * each chunk is sorted and written to a temporary run file, and then
+ * the runs are merged into the report, so that at most one chunk of
+ * methods (and their call edges) is kept in memory. Outputs are written
+ * through buffered file channels, and compressed by gzip if requested.
+ */
+final class CallGraphReporter {
+
+    private static final Logger logger = LogManager.getLogger(CallGraphReporter.class);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Separator between call site and its callees.
+     */
+    private static final String SEP = " -> ";
+
+    private static final String SEPARATOR_LINE =
+            "----------------------------------------";
+
+    private CallGraphReporter() {
+    }
+
+    /**
+     * Logs the numbers of methods, call sites and edges of given call
+     * graph, and {@code sample} reachable methods (with the numbers
+     * of their callees) picked at even intervals.
+     */
+    static void logSummary(CallGraph<Invoke, JMethod> callGraph, int sample) {
+        int nMethods = callGraph.getNumberOfMethods();
+        logger.info("#reachable methods: {}", nMethods);
+        logger.info("#call sites: {}", callGraph.reachableMethods()
+                .mapToInt(m -> callGraph.getCallSitesIn(m).size())
+                .sum());
+        logger.info("#call graph edges: {}", callGraph.getNumberOfEdges());
+        if (sample > 0 && nMethods > 0) {
+            int stride = Math.max(1, nMethods / sample);
+            logger.info("---------- Sampled methods (1/{}): ----------", stride);
+            Iterator<JMethod> it = callGraph.reachableMethods().iterator();
+            for (int i = 0, logged = 0; it.hasNext() && logged < sample; ++i) {
+                JMethod method = it.next();
+                if (i % stride == 0) {
+                    logger.info("{} calls {} method(s)", method,
+                            callGraph.getCalleesOfM(method).size());
+                    ++logged;
+                }
+            }
+            logger.info(SEPARATOR_LINE);
+        }
+    }
+
+    /**
+     * Writes the full report of given call graph to given file.
+     *
+     * @param chunkSize the maximum number of methods sorted in memory
+     */
+    static void writeReport(CallGraph<Invoke, JMethod> callGraph, Path file,
+                            boolean gzip, int chunkSize) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try {
+            List<Record> chunk = new ArrayList<>();
+            Iterator<JMethod> it = callGraph.reachableMethods().iterator();
+            while (it.hasNext()) {
+                chunk.add(toRecord(callGraph, it.next()));
+                if (chunk.size() == chunkSize && it.hasNext()) {
+                    runs.add(writeRun(file, chunk));
+                    chunk.clear();
+                }
+            }
+            if (runs.isEmpty()) {
+                chunk.sort(Comparator.comparing(Record::method));
+            } else {
+                runs.add(writeRun(file, chunk));
+                chunk = null; // release the last chunk before merging
+            }
+            try (Writer out = newWriter(file, gzip)) {
+                out.write("#reachable methods: " + callGraph.getNumberOfMethods() + "\n");
+                out.write("---------- Reachable methods: ----------\n");
+                try (RecordIterator records = records(chunk, runs)) {
+                    while (records.hasNext()) {
+                        out.write(records.next().method());
+                        out.write('\n');
+                    }
+                }
+                out.write("\n#call graph edges: " + callGraph.getNumberOfEdges() + "\n");
+                out.write("---------- Call graph edges: ----------\n");
+                try (RecordIterator records = records(chunk, runs)) {
+                    while (records.hasNext()) {
+                        for (String edge : records.next().edges()) {
+                            out.write(edge);
+                            out.write('\n');
+                        }
+                    }
+                }
+                out.write(SEPARATOR_LINE + "\n");
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } finally {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    /**
+     * Writes given call graph to given file in DOT format. Nodes and edges
+     * are written as soon as they are visited, without building the
+     * whole DOT model in memory.
+     */
+    static void writeDot(CallGraph<Invoke, JMethod> callGraph, Path file,
+                         boolean gzip) throws IOException {
+        Map<JMethod, Integer> ids = Maps.newMap(callGraph.getNumberOfMethods());
+        try (Writer out = newWriter(file, gzip)) {
+            out.write("digraph G {\n");
+            out.write("  node [shape=box,style=filled,color=\".3 .2 1.0\",];\n");
+            Iterator<JMethod> it = callGraph.reachableMethods().iterator();
+            while (it.hasNext()) {
+                JMethod method = it.next();
+                int id = ids.size();
+                ids.put(method, id);
+                out.write("  \"" + id + "\" [label=\"" + escape(method.toString()) + "\",];\n");
+            }
+            it = callGraph.reachableMethods().iterator();
+            while (it.hasNext()) {
+                JMethod caller = it.next();
+                int callerId = ids.get(caller);
+                for (Invoke callSite : callGraph.getCallSitesIn(caller)) {
+                    String label = escape(IRPrinter.toString(callSite));
+                    for (JMethod callee : callGraph.getCalleesOf(callSite)) {
+                        out.write("  \"" + callerId + "\" -> \"" + ids.get(callee) +
+                                "\" [label=\"" + label + "\",];\n");
+                    }
+                }
+            }
+            out.write("}\n");
+        }
+    }
+
+    /**
+     * Reachable method with its call edges in the report.
+     */
+    private record Record(String method, List<String> edges) {
+    }
+
+    private static Record toRecord(CallGraph<Invoke, JMethod> callGraph, JMethod method) {
+        return new Record(method.toString(), callGraph.callSitesIn(method)
+                .sorted(Comparator.comparing(Invoke::getIndex))
+                .filter(callSite -> !callGraph.getCalleesOf(callSite).isEmpty())
+                .map(callSite -> CallGraphs.toString(callSite) + SEP +
+                        toString(callGraph.getCalleesOf(callSite)))
+                .toList());
+    }
+
+    private static String toString(Collection<JMethod> methods) {
+        return methods.stream()
+                .map(JMethod::toString)
+                .sorted()
+                .toList()
+                .toString();
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Sorts given chunk and writes it to a temporary run file. A record is
+     * written as its method, the number of its edges, and then its edges,
+     * one per line.
+     */
+    private static Path writeRun(Path file, List<Record> chunk) throws IOException {
+        chunk.sort(Comparator.comparing(Record::method));
+        Path dir = file.toAbsolutePath().getParent();
+        Path run = Files.createTempFile(dir, "cg-run", ".txt");
+        try (Writer out = newWriter(run, false)) {
+            for (Record record : chunk) {
+                out.write(record.method() + "\n" + record.edges().size() + "\n");
+                for (String edge : record.edges()) {
+                    out.write(edge);
+                    out.write('\n');
+                }
+            }
+        }
+        return run;
+    }
+
+    /**
+     * @return the records in given chunk (if there is no run),
+     * or the records merged from the runs, in sorted order.
+     */
+    private static RecordIterator records(List<Record> chunk, List<Path> runs)
+            throws IOException {
+        if (runs.isEmpty()) {
+            Iterator<Record> it = chunk.iterator();
+            return new RecordIterator() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public Record next() {
+                    return it.next();
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            for (Path run : runs) {
+                BufferedReader reader = Files.newBufferedReader(run);
+                RunReader runReader = new RunReader(reader);
+                readers.add(runReader);
+                runReader.advance();
+            }
+        } catch (IOException | RuntimeException e) {
+            closeAll(readers, e);
+            throw e;
+        }
+        return new MergeIterator(readers);
+    }
+
+    /**
+     * Closes the readers of given runs. The exceptions thrown by closing
+     * are added to {@code primary}, if given, otherwise the first one is
+     * thrown after all readers are closed.
+     */
+    private static void closeAll(List<RunReader> readers, Throwable primary)
+            throws IOException {
+        IOException failure = null;
+        for (RunReader reader : readers) {
+            try {
+                reader.reader.close();
+            } catch (IOException e) {
+                if (primary != null) {
+                    primary.addSuppressed(e);
+                } else if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Iterator of records that holds open run files until it is closed.
+     */
+    private interface RecordIterator extends Iterator<Record>, Closeable {
+    }
+
+    private static class RunReader {
+
+        private final BufferedReader reader;
+
+        private Record head;
+
+        private RunReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        private void advance() throws IOException {
+            String method = reader.readLine();
+            if (method == null) {
+                head = null;
+                reader.close();
+                return;
+            }
+            int n = Integer.parseInt(reader.readLine());
+            List<String> edges = new ArrayList<>(n);
+            for (int i = 0; i < n; ++i) {
+                edges.add(reader.readLine());
+            }
+            head = new Record(method, edges);
+        }
+    }
+
+    /**
+     * K-way merge of sorted runs.
+     */
+    private static class MergeIterator implements RecordIterator {
+
+        private final PriorityQueue<RunReader> queue = new PriorityQueue<>(
+                Comparator.comparing((RunReader r) -> r.head.method()));
+
+        /**
+         * All readers, including the exhausted ones, to be closed
+         * even if the merge is aborted.
+         */
+        private final List<RunReader> readers;
+
+        private MergeIterator(List<RunReader> readers) {
+            this.readers = readers;
+            readers.stream()
+                    .filter(r -> r.head != null)
+                    .forEach(queue::add);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public Record next() {
+            RunReader reader = queue.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+            Record record = reader.head;
+            try {
+                reader.advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (reader.head != null) {
+                queue.add(reader);
+            }
+            return record;
+        }
+
+        @Override
+        public void close() throws IOException {
+            queue.clear();
+            closeAll(readers, null);
+        }
+    }
+
+    private static Writer newWriter(Path file, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        if (!gzip) {
+            return new BufferedWriter(Channels.newWriter(channel,
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+        }
+        OutputStream out = new GZIPOutputStream(new BufferedOutputStream(
+                Channels.newOutputStream(channel), BUFFER_SIZE), BUFFER_SIZE);
+        return new BufferedWriter(new OutputStreamWriter(out,
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+}
@@ -33,14 +33,17 @@ import pascal.taie.ir.exp.InvokeSpecial;
 import pascal.taie.ir.exp.InvokeStatic;
 import pascal.taie.ir.exp.InvokeVirtual;
 import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
 import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.StringReps;
+import pascal.taie.language.classes.Subsignature;
 import pascal.taie.util.AnalysisException;
-import pascal.taie.util.IDProvider;
-import pascal.taie.util.MapIDProvider;
-import pascal.taie.util.graph.DotDumper;
 
+import javax.annotation.Nullable;
 import java.io.File;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.stream.Collectors;
 
 /**
@@ -74,7 +77,8 @@ public final class CallGraphs {
     }
 
     /**
-     * Dumps call graph to dot file.
+     * Dumps call graph to dot file, which is compressed by gzip
+     * if its name ends with ".gz".
      */
     static void dumpCallGraph(CallGraph<Invoke, JMethod> callGraph, String output) {
         if (output == null) {
@@ -85,15 +89,66 @@ public final class CallGraphs {
                     .toString();
         }
         logger.info("Dumping call graph to {} ...", output);
-        IDProvider<JMethod> provider = new MapIDProvider<>();
-        new DotDumper<JMethod>()
-                .setNodeToString(n -> Integer.toString(provider.getID(n)))
-                .setNodeLabeler(JMethod::toString)
-                .setGlobalNodeAttributes(Map.of("shape", "box",
-                        "style", "filled", "color", "\".3 .2 1.0\""))
-                .setEdgeLabeler(e -> IRPrinter.toString(
-                        ((MethodEdge<Invoke, JMethod>) e).callSite()))
-                .dump(callGraph, output);
+        try {
+            CallGraphReporter.writeDot(callGraph, Path.of(output),
+                    output.endsWith(".gz"));
+        } catch (IOException e) {
+            logger.warn("Failed to dump graph to {}, caused by {}", output, e);
+        }
+    }
+
+    /**
+     * Writes sorted report of call graph to given file, which is
+     * compressed by gzip if its name ends with ".gz".
+     *
+     * @param chunkSize the maximum number of methods sorted in memory
+     */
+    static void reportCallGraph(CallGraph<Invoke, JMethod> callGraph,
+                                String output, int chunkSize) {
+        if (output == null) {
+            output = new File(Configs.getOutputDir(),
+                    callGraph.entryMethods()
+                            .map(m -> m.getDeclaringClass() + "." + m.getName())
+                            .collect(Collectors.joining("-")) + "-cg.txt.gz")
+                    .toString();
+        }
+        logger.info("Writing call graph report to {} ...", output);
+        try {
+            CallGraphReporter.writeReport(callGraph, Path.of(output),
+                    output.endsWith(".gz"), chunkSize);
+        } catch (IOException e) {
+            logger.warn("Failed to write report to {}, caused by {}", output, e);
+        }
+    }
+
+    /**
+     * Saves call graph to binary file, which can be loaded
+     * by {@link MappedCallGraph#load(Path)}.
+     */
+    static void saveCallGraph(CallGraph<Invoke, JMethod> callGraph, String output) {
+        if (output == null) {
+            output = new File(Configs.getOutputDir(),
+                    callGraph.entryMethods()
+                            .map(m -> m.getDeclaringClass() + "." + m.getName())
+                            .collect(Collectors.joining("-")) + "-cg.bin")
+                    .toString();
+        }
+        logger.info("Saving call graph to {} ...", output);
+        try {
+            MappedCallGraph.write(callGraph, Path.of(output));
+        } catch (IOException e) {
+            logger.warn("Failed to save call graph to {}, caused by {}", output, e);
+        }
+    }
+
+    /**
+     * @return the method of given signature in class hierarchy,
+     * or null if the method cannot be found.
+     */
+    static @Nullable JMethod getMethod(ClassHierarchy hierarchy, String signature) {
+        JClass jclass = hierarchy.getClass(StringReps.getClassNameOf(signature));
+        return jclass == null ? null : jclass.getDeclaredMethod(
+                Subsignature.get(StringReps.getSubsignatureOf(signature)));
     }
 
     public static String toString(Invoke invoke) {
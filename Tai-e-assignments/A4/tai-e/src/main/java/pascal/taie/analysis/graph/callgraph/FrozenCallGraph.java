@@ -0,0 +1,495 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Immutable snapshot of a call graph, created by
+ * {@link AbstractCallGraph#freeze()}.
+ * <p>
+ * Reachable methods and call sites have dense ids, and the call sites of
+ * each method have consecutive ids. The call edges are stored in
+ * compressed-sparse-row (CSR) arrays twice: grouped by call sites (thus
+ * also by callers) and grouped by callees. The distinct callees and
+ * callers of each method are stored in CSR arrays as well. All queries
+ * return views over ranges of these arrays, so they neither hash nor
+ * allocate collections, except for the membership tests of the views,
+ * which scan the ranges.
+ *
+ * @param <CallSite> type of call sites
+ * @param <Method>   type of methods
+ */
+public class FrozenCallGraph<CallSite, Method> implements CallGraph<CallSite, Method> {
+
+    private final List<Method> entryMethods;
+
+    private final List<Method> methods;
+
+    private final Map<Method, Integer> methodIds;
+
+    private final List<CallSite> callSites;
+
+    private final Map<CallSite, Integer> callSiteIds;
+
+    /**
+     * Call sites of method {@code i} have ids
+     * {@code [callSiteOffsets[i], callSiteOffsets[i + 1])}.
+     */
+    private final int[] callSiteOffsets;
+
+    private final int[] containers;
+
+    /**
+     * Edges of call site {@code i} are {@code outEdges[outOffsets[i]]} to
+     * {@code outEdges[outOffsets[i + 1] - 1]}.
+     */
+    private final int[] outOffsets;
+
+    private final Edge<CallSite, Method>[] outEdges;
+
+    private final MethodEdge<CallSite, Method>[] outMethodEdges;
+
+    private final int[] outCallees;
+
+    /**
+     * Edges into method {@code i} are {@code inEdges[inOffsets[i]]} to
+     * {@code inEdges[inOffsets[i + 1] - 1]}.
+     */
+    private final int[] inOffsets;
+
+    private final Edge<CallSite, Method>[] inEdges;
+
+    private final MethodEdge<CallSite, Method>[] inMethodEdges;
+
+    private final int[] inCallSites;
+
+    /**
+     * Distinct callees (successors) and callers (predecessors) of methods.
+     */
+    private final int[] succOffsets;
+
+    private final int[] succs;
+
+    private final int[] predOffsets;
+
+    private final int[] preds;
+
+    FrozenCallGraph(CallGraph<CallSite, Method> callGraph) {
+        entryMethods = callGraph.entryMethods().toList();
+        methods = callGraph.reachableMethods().toList();
+        int nMethods = methods.size();
+        methodIds = Maps.newMap(nMethods);
+        for (int i = 0; i < nMethods; ++i) {
+            methodIds.put(methods.get(i), i);
+        }
+        // number call sites method by method
+        callSiteOffsets = new int[nMethods + 1];
+        for (int i = 0; i < nMethods; ++i) {
+            callSiteOffsets[i + 1] = callSiteOffsets[i] +
+                    callGraph.getCallSitesIn(methods.get(i)).size();
+        }
+        int nCallSites = callSiteOffsets[nMethods];
+        callSites = callGraph.reachableMethods()
+                .flatMap(callGraph::callSitesIn)
+                .toList();
+        callSiteIds = Maps.newMap(nCallSites);
+        containers = new int[nCallSites];
+        for (int i = 0; i < nMethods; ++i) {
+            for (int cs = callSiteOffsets[i]; cs < callSiteOffsets[i + 1]; ++cs) {
+                callSiteIds.put(callSites.get(cs), cs);
+                containers[cs] = i;
+            }
+        }
+        // out edges, grouped by call sites
+        outOffsets = new int[nCallSites + 1];
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            outOffsets[cs + 1] = outOffsets[cs] +
+                    callGraph.getCalleesOf(callSites.get(cs)).size();
+        }
+        int nEdges = outOffsets[nCallSites];
+        outEdges = newEdgeArray(nEdges);
+        outMethodEdges = newMethodEdgeArray(nEdges);
+        outCallees = new int[nEdges];
+        int[] inDegrees = new int[nMethods];
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            int pos = outOffsets[cs];
+            CallSite callSite = callSites.get(cs);
+            Iterator<Edge<CallSite, Method>> it =
+                    callGraph.edgesOutOf(callSite).iterator();
+            while (it.hasNext()) {
+                Edge<CallSite, Method> edge = it.next();
+                int callee = methodIds.get(edge.getCallee());
+                outEdges[pos] = edge;
+                outMethodEdges[pos] = new MethodEdge<>(
+                        methods.get(containers[cs]), edge.getCallee(), callSite);
+                outCallees[pos++] = callee;
+                ++inDegrees[callee];
+            }
+        }
+        // in edges, grouped by callees (counting sort of out edges)
+        inOffsets = new int[nMethods + 1];
+        for (int i = 0; i < nMethods; ++i) {
+            inOffsets[i + 1] = inOffsets[i] + inDegrees[i];
+        }
+        inEdges = newEdgeArray(nEdges);
+        inMethodEdges = newMethodEdgeArray(nEdges);
+        inCallSites = new int[nEdges];
+        int[] next = Arrays.copyOf(inOffsets, nMethods);
+        for (int cs = 0; cs < nCallSites; ++cs) {
+            for (int pos = outOffsets[cs]; pos < outOffsets[cs + 1]; ++pos) {
+                int in = next[outCallees[pos]]++;
+                inEdges[in] = outEdges[pos];
+                inMethodEdges[in] = outMethodEdges[pos];
+                inCallSites[in] = cs;
+            }
+        }
+        // distinct successors and predecessors of methods
+        int[] stamps = new int[nMethods];
+        Arrays.fill(stamps, -1);
+        succOffsets = new int[nMethods + 1];
+        int[] succBuffer = new int[nEdges];
+        for (int i = 0; i < nMethods; ++i) {
+            int size = succOffsets[i];
+            for (int pos = outOffsets[callSiteOffsets[i]];
+                 pos < outOffsets[callSiteOffsets[i + 1]]; ++pos) {
+                int callee = outCallees[pos];
+                if (stamps[callee] != i) {
+                    stamps[callee] = i;
+                    succBuffer[size++] = callee;
+                }
+            }
+            succOffsets[i + 1] = size;
+        }
+        succs = Arrays.copyOf(succBuffer, succOffsets[nMethods]);
+        Arrays.fill(stamps, -1);
+        predOffsets = new int[nMethods + 1];
+        int[] predBuffer = new int[nEdges];
+        for (int i = 0; i < nMethods; ++i) {
+            int size = predOffsets[i];
+            for (int pos = inOffsets[i]; pos < inOffsets[i + 1]; ++pos) {
+                int caller = containers[inCallSites[pos]];
+                if (stamps[caller] != i) {
+                    stamps[caller] = i;
+                    predBuffer[size++] = caller;
+                }
+            }
+            predOffsets[i + 1] = size;
+        }
+        preds = Arrays.copyOf(predBuffer, predOffsets[nMethods]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <CallSite, Method> Edge<CallSite, Method>[] newEdgeArray(int length) {
+        return (Edge<CallSite, Method>[]) new Edge<?, ?>[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <CallSite, Method> MethodEdge<CallSite, Method>[] newMethodEdgeArray(int length) {
+        return (MethodEdge<CallSite, Method>[]) new MethodEdge<?, ?>[length];
+    }
+
+    // ---------- id-based APIs ----------
+
+    /**
+     * @return the id of given reachable method.
+     */
+    public int getMethodId(Method method) {
+        return methodIds.get(method);
+    }
+
+    public Method getMethod(int id) {
+        return methods.get(id);
+    }
+
+    /**
+     * @return the id of given call site.
+     */
+    public int getCallSiteId(CallSite callSite) {
+        return callSiteIds.get(callSite);
+    }
+
+    public CallSite getCallSite(int id) {
+        return callSites.get(id);
+    }
+
+    public int getNumberOfCallSites() {
+        return callSites.size();
+    }
+
+    // ---------- CallGraph APIs ----------
+
+    @Override
+    public Set<CallSite> getCallersOf(Method callee) {
+        Integer id = methodIds.get(callee);
+        return id == null ? Set.of() :
+                new RangeSet<>(callSites, callSiteIds, inCallSites,
+                        inOffsets[id], inOffsets[id + 1]);
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(CallSite callSite) {
+        Integer id = callSiteIds.get(callSite);
+        return id == null ? Set.of() :
+                new RangeSet<>(methods, methodIds, outCallees,
+                        outOffsets[id], outOffsets[id + 1]);
+    }
+
+    @Override
+    public Set<Method> getCalleesOfM(Method caller) {
+        return getSuccsOf(caller);
+    }
+
+    @Override
+    public Method getContainerOf(CallSite callSite) {
+        Integer id = callSiteIds.get(callSite);
+        return id == null ? null : methods.get(containers[id]);
+    }
+
+    @Override
+    public Set<CallSite> getCallSitesIn(Method method) {
+        Integer id = methodIds.get(method);
+        return id == null ? Set.of() :
+                new RangeSet<>(callSites, callSiteIds, null,
+                        callSiteOffsets[id], callSiteOffsets[id + 1]);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesOutOf(CallSite callSite) {
+        Integer id = callSiteIds.get(callSite);
+        return id == null ? Stream.of() :
+                Arrays.stream(outEdges, outOffsets[id], outOffsets[id + 1]);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edgesInTo(Method method) {
+        Integer id = methodIds.get(method);
+        return id == null ? Stream.of() :
+                Arrays.stream(inEdges, inOffsets[id], inOffsets[id + 1]);
+    }
+
+    @Override
+    public Stream<Edge<CallSite, Method>> edges() {
+        return Arrays.stream(outEdges);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return outEdges.length;
+    }
+
+    @Override
+    public Stream<Method> entryMethods() {
+        return entryMethods.stream();
+    }
+
+    @Override
+    public Stream<Method> reachableMethods() {
+        return methods.stream();
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return methods.size();
+    }
+
+    @Override
+    public boolean contains(Method method) {
+        return methodIds.containsKey(method);
+    }
+
+    // ---------- Graph APIs ----------
+
+    @Override
+    public boolean hasNode(Method node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(Method source, Method target) {
+        return getSuccsOf(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getInEdgesOf(Method method) {
+        Integer id = methodIds.get(method);
+        return id == null ? Set.of() :
+                new ArrayRangeSet<>(inMethodEdges, inOffsets[id], inOffsets[id + 1]);
+    }
+
+    @Override
+    public Set<MethodEdge<CallSite, Method>> getOutEdgesOf(Method method) {
+        Integer id = methodIds.get(method);
+        return id == null ? Set.of() :
+                new ArrayRangeSet<>(outMethodEdges,
+                        outOffsets[callSiteOffsets[id]],
+                        outOffsets[callSiteOffsets[id + 1]]);
+    }
+
+    @Override
+    public Set<Method> getPredsOf(Method node) {
+        Integer id = methodIds.get(node);
+        return id == null ? Set.of() :
+                new RangeSet<>(methods, methodIds, preds,
+                        predOffsets[id], predOffsets[id + 1]);
+    }
+
+    @Override
+    public Set<Method> getSuccsOf(Method node) {
+        Integer id = methodIds.get(node);
+        return id == null ? Set.of() :
+                new RangeSet<>(methods, methodIds, succs,
+                        succOffsets[id], succOffsets[id + 1]);
+    }
+
+    @Override
+    public Set<Method> getNodes() {
+        return new RangeSet<>(methods, methodIds, null, 0, methods.size());
+    }
+
+    // ---------- StmtResult APIs ----------
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return callSiteIds.containsKey(stmt);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Set<Method> getResult(Stmt stmt) {
+        return getCalleesOf((CallSite) stmt);
+    }
+
+    /**
+     * Unmodifiable set of the elements whose ids are
+     * {@code ids[start]} to {@code ids[end - 1]}, or
+     * {@code start} to {@code end - 1} if {@code ids} is null.
+     */
+    private static class RangeSet<E> extends AbstractSet<E> {
+
+        private final List<E> elements;
+
+        private final Map<E, Integer> elementIds;
+
+        private final int[] ids;
+
+        private final int start;
+
+        private final int end;
+
+        private RangeSet(List<E> elements, Map<E, Integer> elementIds,
+                         int[] ids, int start, int end) {
+            this.elements = elements;
+            this.elementIds = elementIds;
+            this.ids = ids;
+            this.start = start;
+            this.end = end;
+        }
+
+        private int idAt(int pos) {
+            return ids == null ? pos : ids[pos];
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer id = elementIds.get(o);
+            if (id == null) {
+                return false;
+            }
+            if (ids == null) {
+                return start <= id && id < end;
+            }
+            for (int pos = start; pos < end; ++pos) {
+                if (ids[pos] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<>() {
+
+                private int pos = start;
+
+                @Override
+                public boolean hasNext() {
+                    return pos < end;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return elements.get(idAt(pos++));
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+
+    /**
+     * Unmodifiable set of the elements {@code array[start]} to
+     * {@code array[end - 1]}, which are distinct.
+     */
+    private static class ArrayRangeSet<E> extends AbstractSet<E> {
+
+        private final E[] array;
+
+        private final int start;
+
+        private final int end;
+
+        private ArrayRangeSet(E[] array, int start, int end) {
+            this.array = array;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return Arrays.asList(array).subList(start, end).iterator();
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
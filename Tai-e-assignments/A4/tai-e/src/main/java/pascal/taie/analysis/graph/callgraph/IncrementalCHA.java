@@ -0,0 +1,62 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.language.classes.JClass;
+
+import java.util.Collection;
+
+/**
+ * Maintains a CHA call graph incrementally when new classes are added
+ * to the class hierarchy, e.g., when a jar is loaded, instead of
+ * rebuilding the call graph from the entry methods.
+ */
+public class IncrementalCHA {
+
+    private final DefaultCallGraph callGraph;
+
+    private final CHABuilder builder = new CHABuilder(false, 1, null);
+
+    /**
+     * @param callGraph a call graph built by CHA, which is updated in place
+     */
+    public IncrementalCHA(DefaultCallGraph callGraph) {
+        this.callGraph = callGraph;
+    }
+
+    public DefaultCallGraph getCallGraph() {
+        return callGraph;
+    }
+
+    /**
+     * Updates the call graph for given classes, which must have been
+     * added to the class hierarchy. The call sites whose declaring classes
+     * are supertypes of the new classes gain the new dispatch targets,
+     * and the methods that become reachable are processed by CHA.
+     *
+     * @return the changes made to the call graph.
+     */
+    public CallGraphDelta addClasses(Collection<JClass> classes) {
+        return builder.update(callGraph, classes);
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import javax.annotation.Nullable;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Precomputed CHA call-graph fragments of library methods.
+ * <p>
+ * A fragment of a library method records, for each call site in the
+ * method, the CHA targets that are dispatched on library types.
+ * As library classes do not change between runs, the fragments are
+ * persisted and reused, and then only the dispatch on application types
+ * needs to be resolved for library call sites (see {@link CHABuilder}).
+ * The fragments are bound to a fingerprint of the library classes,
+ * and are discarded if the library changes.
+ * <p>
+ * Loaded fragments are immutable, thus can be queried concurrently.
+ */
+final class LibraryFragments {
+
+    private static final Logger logger = LogManager.getLogger(LibraryFragments.class);
+
+    private static final int MAGIC = 0x4c434846; // "LCHF"
+
+    private static final int VERSION = 1;
+
+    private final Map<JMethod, Fragment> fragments;
+
+    /**
+     * Targets of call sites in a library method. The call sites are
+     * identified by their (ascending) indexes in the IR of the method.
+     */
+    private record Fragment(int[] indexes, List<Set<JMethod>> targets) {
+    }
+
+    private LibraryFragments(Map<JMethod, Fragment> fragments) {
+        this.fragments = fragments;
+    }
+
+    static boolean isLibrary(JClass jclass) {
+        return !jclass.isApplication();
+    }
+
+    /**
+     * @return the library targets of given call site, or null if there is
+     * no fragment for the call site.
+     */
+    @Nullable Set<JMethod> getTargets(Invoke callSite) {
+        Fragment fragment = fragments.get(callSite.getContainer());
+        if (fragment == null) {
+            return null;
+        }
+        int i = Arrays.binarySearch(fragment.indexes(), callSite.getIndex());
+        return i < 0 ? null : fragment.targets().get(i);
+    }
+
+    int size() {
+        return fragments.size();
+    }
+
+    /**
+     * Computes a fingerprint of the library classes in given hierarchy,
+     * which does not depend on the order of the classes.
+     */
+    private static long fingerprint(ClassHierarchy hierarchy) {
+        return hierarchy.allClasses()
+                .filter(LibraryFragments::isLibrary)
+                .mapToLong(c -> {
+                    long h = c.getName().hashCode() * 0x9E3779B97F4A7C15L;
+                    return h ^ (h >>> 29);
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Loads fragments from given file.
+     *
+     * @return the loaded fragments, or null if the file cannot be read,
+     * or it does not match the library classes in given hierarchy.
+     */
+    static @Nullable LibraryFragments load(Path file, ClassHierarchy hierarchy) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION ||
+                    in.readLong() != fingerprint(hierarchy)) {
+                logger.warn("Library fragments in {} are outdated, ignored", file);
+                return null;
+            }
+            JMethod[] methods = new JMethod[in.readInt()];
+            for (int i = 0; i < methods.length; ++i) {
+                String signature = in.readUTF();
+                methods[i] = CallGraphs.getMethod(hierarchy, signature);
+                if (methods[i] == null) {
+                    logger.warn("Cannot resolve {} in library fragments {}, ignored",
+                            signature, file);
+                    return null;
+                }
+            }
+            int nFragments = in.readInt();
+            Map<JMethod, Fragment> fragments = Maps.newMap(nFragments);
+            for (int f = 0; f < nFragments; ++f) {
+                JMethod method = methods[in.readInt()];
+                int[] indexes = new int[in.readInt()];
+                List<Set<JMethod>> targets = new ArrayList<>(indexes.length);
+                for (int i = 0; i < indexes.length; ++i) {
+                    indexes[i] = in.readInt();
+                    JMethod[] callees = new JMethod[in.readInt()];
+                    for (int j = 0; j < callees.length; ++j) {
+                        callees[j] = methods[in.readInt()];
+                    }
+                    targets.add(Set.of(callees));
+                }
+                fragments.put(method, new Fragment(indexes, targets));
+            }
+            return new LibraryFragments(Collections.unmodifiableMap(fragments));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to load library fragments from {}, caused by {}",
+                    file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the fragments of the reachable library methods in given
+     * call graph to given file.
+     *
+     * @param libraryTargets resolves the library targets of call sites
+     */
+    static void write(Path file, ClassHierarchy hierarchy,
+                      CallGraph<Invoke, JMethod> callGraph,
+                      Function<Invoke, Set<JMethod>> libraryTargets)
+            throws IOException {
+        List<JMethod> libraryMethods = callGraph.reachableMethods()
+                .filter(m -> isLibrary(m.getDeclaringClass()) && !m.isAbstract())
+                .toList();
+        Map<JMethod, Integer> ids = new LinkedHashMap<>();
+        Map<JMethod, List<Invoke>> callSites = Maps.newMap(libraryMethods.size());
+        for (JMethod method : libraryMethods) {
+            ids.putIfAbsent(method, ids.size());
+            List<Invoke> invokes = callGraph.callSitesIn(method)
+                    .sorted(Comparator.comparing(Invoke::getIndex))
+                    .toList();
+            callSites.put(method, invokes);
+            for (Invoke invoke : invokes) {
+                for (JMethod target : libraryTargets.apply(invoke)) {
+                    ids.putIfAbsent(target, ids.size());
+                }
+            }
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint(hierarchy));
+            out.writeInt(ids.size());
+            for (JMethod method : ids.keySet()) {
+                out.writeUTF(method.getSignature());
+            }
+            out.writeInt(libraryMethods.size());
+            for (JMethod method : libraryMethods) {
+                out.writeInt(ids.get(method));
+                List<Invoke> invokes = callSites.get(method);
+                out.writeInt(invokes.size());
+                for (Invoke invoke : invokes) {
+                    out.writeInt(invoke.getIndex());
+                    Set<JMethod> targets = libraryTargets.apply(invoke);
+                    out.writeInt(targets.size());
+                    for (JMethod target : targets) {
+                        out.writeInt(ids.get(target));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,545 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.AnalysisException;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Sets;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Call graph backed by a memory-mapped file in a compact binary format,
+ * written by {@link #write(CallGraph, Path)}.
+ * <p>
+ * The file consists of a header and following sections
+ * (all integers are big-endian):
+ * <ol>
+ *     <li>header: magic, version, #methods, #entry methods,
+ *     #call sites, #edges, #bytes of signatures</li>
+ *     <li>offsets of method signatures (#methods + 1)</li>
+ *     <li>ids of entry methods</li>
+ *     <li>call-site offsets of methods (#methods + 1); call sites of
+ *     each method have consecutive ids and ascending statement indexes</li>
+ *     <li>statement indexes of call sites in their containers</li>
+ *     <li>edge offsets of call sites (#call sites + 1)</li>
+ *     <li>callee ids of edges</li>
+ *     <li>in-edge offsets of methods (#methods + 1)</li>
+ *     <li>ids of in edges, grouped by callees</li>
+ *     <li>call kinds of edges (one byte per edge)</li>
+ *     <li>method signatures in UTF-8</li>
+ * </ol>
+ * Loading a graph only maps the file. Methods are resolved from their
+ * signatures, and call sites from the IR of their containers, when they
+ * are queried for the first time, thus the current program must be
+ * the one from which the graph was saved.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class MappedCallGraph implements CallGraph<Invoke, JMethod> {
+
+    private static final int MAGIC = 0x54434746; // "TCGF"
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 7 * Integer.BYTES;
+
+    private static final CallKind[] KINDS = CallKind.values();
+
+    private final Path file;
+
+    private final int nMethods;
+
+    private final int nCallSites;
+
+    private final int nEdges;
+
+    private final IntBuffer signatureOffsets;
+
+    private final IntBuffer entries;
+
+    private final IntBuffer callSiteOffsets;
+
+    private final IntBuffer callSiteIndexes;
+
+    private final IntBuffer edgeOffsets;
+
+    private final IntBuffer callees;
+
+    private final IntBuffer inOffsets;
+
+    private final IntBuffer inEdges;
+
+    private final ByteBuffer kinds;
+
+    private final ByteBuffer signatures;
+
+    /**
+     * Lazily resolved methods and call sites.
+     */
+    private final JMethod[] methods;
+
+    private final Invoke[] callSites;
+
+    /**
+     * Map from method signatures to ids, built on the first reverse lookup.
+     */
+    private Map<String, Integer> signatureIds;
+
+    private MappedCallGraph(Path file, ByteBuffer buffer) {
+        this.file = file;
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new AnalysisException(file + " is not a call graph file" +
+                    " of version " + VERSION);
+        }
+        nMethods = buffer.getInt();
+        int nEntries = buffer.getInt();
+        nCallSites = buffer.getInt();
+        nEdges = buffer.getInt();
+        int nSignatureBytes = buffer.getInt();
+        signatureOffsets = ints(buffer, nMethods + 1);
+        entries = ints(buffer, nEntries);
+        callSiteOffsets = ints(buffer, nMethods + 1);
+        callSiteIndexes = ints(buffer, nCallSites);
+        edgeOffsets = ints(buffer, nCallSites + 1);
+        callees = ints(buffer, nEdges);
+        inOffsets = ints(buffer, nMethods + 1);
+        inEdges = ints(buffer, nEdges);
+        kinds = bytes(buffer, nEdges);
+        signatures = bytes(buffer, nSignatureBytes);
+        methods = new JMethod[nMethods];
+        callSites = new Invoke[nCallSites];
+    }
+
+    private static IntBuffer ints(ByteBuffer buffer, int count) {
+        IntBuffer result = buffer.slice()
+                .limit(count * Integer.BYTES)
+                .asIntBuffer();
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return result;
+    }
+
+    private static ByteBuffer bytes(ByteBuffer buffer, int count) {
+        ByteBuffer result = buffer.slice().limit(count);
+        buffer.position(buffer.position() + count);
+        return result;
+    }
+
+    /**
+     * Loads the call graph saved in given file by memory-mapping it.
+     *
+     * @throws AnalysisException if the file cannot be read or is malformed
+     */
+    public static MappedCallGraph load(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(
+                    FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new MappedCallGraph(file, buffer);
+        } catch (IOException | RuntimeException e) {
+            throw new AnalysisException("Failed to load call graph from " + file, e);
+        }
+    }
+
+    /**
+     * Writes given call graph to given file in the binary format.
+     */
+    public static void write(CallGraph<Invoke, JMethod> callGraph, Path file)
+            throws IOException {
+        List<JMethod> methods = callGraph.reachableMethods().toList();
+        Map<JMethod, Integer> methodIds = Maps.newMap(methods.size());
+        for (int i = 0; i < methods.size(); ++i) {
+            methodIds.put(methods.get(i), i);
+        }
+        int[] entries = callGraph.entryMethods()
+                .mapToInt(methodIds::get)
+                .toArray();
+        byte[][] signatures = new byte[methods.size()][];
+        int[] signatureOffsets = new int[methods.size() + 1];
+        int[] callSiteOffsets = new int[methods.size() + 1];
+        for (int i = 0; i < methods.size(); ++i) {
+            signatures[i] = methods.get(i).getSignature()
+                    .getBytes(StandardCharsets.UTF_8);
+            signatureOffsets[i + 1] = signatureOffsets[i] + signatures[i].length;
+            callSiteOffsets[i + 1] = callSiteOffsets[i] +
+                    callGraph.getCallSitesIn(methods.get(i)).size();
+        }
+        List<Invoke> callSites = methods.stream()
+                .flatMap(m -> callGraph.callSitesIn(m)
+                        .sorted(Comparator.comparing(Invoke::getIndex)))
+                .toList();
+        int[] callSiteIndexes = callSites.stream()
+                .mapToInt(Invoke::getIndex)
+                .toArray();
+        int[] edgeOffsets = new int[callSites.size() + 1];
+        for (int i = 0; i < callSites.size(); ++i) {
+            edgeOffsets[i + 1] = edgeOffsets[i] +
+                    (int) callGraph.edgesOutOf(callSites.get(i)).count();
+        }
+        int nEdges = edgeOffsets[callSites.size()];
+        int[] callees = new int[nEdges];
+        byte[] kinds = new byte[nEdges];
+        int[] inOffsets = new int[methods.size() + 1];
+        for (int i = 0; i < callSites.size(); ++i) {
+            int pos = edgeOffsets[i];
+            for (Edge<Invoke, JMethod> edge :
+                    (Iterable<Edge<Invoke, JMethod>>)
+                            callGraph.edgesOutOf(callSites.get(i))::iterator) {
+                callees[pos] = methodIds.get(edge.getCallee());
+                kinds[pos] = (byte) edge.getKind().ordinal();
+                ++inOffsets[callees[pos++] + 1];
+            }
+        }
+        for (int i = 0; i < methods.size(); ++i) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        int[] inEdges = new int[nEdges];
+        int[] next = Arrays.copyOf(inOffsets, methods.size());
+        for (int e = 0; e < nEdges; ++e) {
+            inEdges[next[callees[e]]++] = e;
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(methods.size());
+            out.writeInt(entries.length);
+            out.writeInt(callSites.size());
+            out.writeInt(nEdges);
+            out.writeInt(signatureOffsets[methods.size()]);
+            writeInts(out, signatureOffsets);
+            writeInts(out, entries);
+            writeInts(out, callSiteOffsets);
+            writeInts(out, callSiteIndexes);
+            writeInts(out, edgeOffsets);
+            writeInts(out, callees);
+            writeInts(out, inOffsets);
+            writeInts(out, inEdges);
+            out.write(kinds);
+            for (byte[] signature : signatures) {
+                out.write(signature);
+            }
+        }
+    }
+
+    private static void writeInts(DataOutputStream out, int[] ints)
+            throws IOException {
+        for (int i : ints) {
+            out.writeInt(i);
+        }
+    }
+
+    // ---------- resolution of ids ----------
+
+    private String getSignature(int method) {
+        int start = signatureOffsets.get(method);
+        int length = signatureOffsets.get(method + 1) - start;
+        byte[] bytes = new byte[length];
+        signatures.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private JMethod getMethod(int id) {
+        JMethod method = methods[id];
+        if (method == null) {
+            String signature = getSignature(id);
+            method = CallGraphs.getMethod(World.get().getClassHierarchy(), signature);
+            if (method == null) {
+                throw new AnalysisException("Cannot resolve " + signature +
+                        " in " + file + ", the program may have changed");
+            }
+            methods[id] = method;
+        }
+        return method;
+    }
+
+    private Invoke getCallSite(int id) {
+        Invoke callSite = callSites[id];
+        if (callSite == null) {
+            JMethod container = getMethod(getContainerId(id));
+            if (container.getIR().getStmt(callSiteIndexes.get(id))
+                    instanceof Invoke invoke) {
+                callSite = invoke;
+            } else {
+                throw new AnalysisException("Cannot resolve call site in " +
+                        container + " from " + file + ", the program may have changed");
+            }
+            callSites[id] = callSite;
+        }
+        return callSite;
+    }
+
+    private Edge<Invoke, JMethod> getEdge(int callSite, int edge) {
+        return new Edge<>(KINDS[kinds.get(edge)],
+                getCallSite(callSite), getMethod(callees.get(edge)));
+    }
+
+    /**
+     * @return the id of the greatest element in {@code [0, size)} of
+     * {@code offsets} that is not greater than {@code pos}.
+     */
+    private static int floor(IntBuffer offsets, int size, int pos) {
+        int low = 0, high = size - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets.get(mid) <= pos) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private int getContainerId(int callSite) {
+        return floor(callSiteOffsets, nMethods, callSite);
+    }
+
+    private int getCallSiteIdOfEdge(int edge) {
+        return floor(edgeOffsets, nCallSites, edge);
+    }
+
+    private Integer getMethodId(Object method) {
+        if (signatureIds == null) {
+            signatureIds = Maps.newMap(nMethods);
+            for (int i = 0; i < nMethods; ++i) {
+                signatureIds.put(getSignature(i), i);
+            }
+        }
+        return method instanceof JMethod m ?
+                signatureIds.get(m.getSignature()) : null;
+    }
+
+    private int getCallSiteId(Invoke invoke) {
+        Integer container = getMethodId(invoke.getContainer());
+        if (container == null) {
+            return -1;
+        }
+        int low = callSiteOffsets.get(container);
+        int high = callSiteOffsets.get(container + 1) - 1;
+        int index = invoke.getIndex();
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = callSiteIndexes.get(mid);
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    // ---------- CallGraph APIs ----------
+
+    @Override
+    public Set<Invoke> getCallersOf(JMethod callee) {
+        Integer id = getMethodId(callee);
+        if (id == null) {
+            return Set.of();
+        }
+        Set<Invoke> callers = Sets.newHybridSet();
+        for (int pos = inOffsets.get(id); pos < inOffsets.get(id + 1); ++pos) {
+            callers.add(getCallSite(getCallSiteIdOfEdge(inEdges.get(pos))));
+        }
+        return callers;
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOf(Invoke callSite) {
+        int id = getCallSiteId(callSite);
+        if (id < 0) {
+            return Set.of();
+        }
+        Set<JMethod> result = Sets.newHybridSet();
+        for (int e = edgeOffsets.get(id); e < edgeOffsets.get(id + 1); ++e) {
+            result.add(getMethod(callees.get(e)));
+        }
+        return result;
+    }
+
+    @Override
+    public Set<JMethod> getCalleesOfM(JMethod caller) {
+        Integer id = getMethodId(caller);
+        if (id == null) {
+            return Set.of();
+        }
+        Set<JMethod> result = Sets.newHybridSet();
+        int start = edgeOffsets.get(callSiteOffsets.get(id));
+        int end = edgeOffsets.get(callSiteOffsets.get(id + 1));
+        for (int e = start; e < end; ++e) {
+            result.add(getMethod(callees.get(e)));
+        }
+        return result;
+    }
+
+    @Override
+    public JMethod getContainerOf(Invoke invoke) {
+        return invoke.getContainer();
+    }
+
+    @Override
+    public Set<Invoke> getCallSitesIn(JMethod method) {
+        Integer id = getMethodId(method);
+        if (id == null) {
+            return Set.of();
+        }
+        Set<Invoke> result = Sets.newHybridSet();
+        for (int cs = callSiteOffsets.get(id); cs < callSiteOffsets.get(id + 1); ++cs) {
+            result.add(getCallSite(cs));
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesOutOf(Invoke callSite) {
+        int id = getCallSiteId(callSite);
+        return id < 0 ? Stream.of() : edgesOutOf(id);
+    }
+
+    private Stream<Edge<Invoke, JMethod>> edgesOutOf(int callSite) {
+        return IntStream.range(edgeOffsets.get(callSite), edgeOffsets.get(callSite + 1))
+                .mapToObj(e -> getEdge(callSite, e));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edgesInTo(JMethod method) {
+        Integer id = getMethodId(method);
+        return id == null ? Stream.of() :
+                IntStream.range(inOffsets.get(id), inOffsets.get(id + 1))
+                        .map(inEdges::get)
+                        .mapToObj(e -> getEdge(getCallSiteIdOfEdge(e), e));
+    }
+
+    @Override
+    public Stream<Edge<Invoke, JMethod>> edges() {
+        return IntStream.range(0, nCallSites).boxed().flatMap(this::edgesOutOf);
+    }
+
+    @Override
+    public int getNumberOfEdges() {
+        return nEdges;
+    }
+
+    @Override
+    public Stream<JMethod> entryMethods() {
+        return IntStream.range(0, entries.limit())
+                .mapToObj(i -> getMethod(entries.get(i)));
+    }
+
+    @Override
+    public Stream<JMethod> reachableMethods() {
+        return IntStream.range(0, nMethods).mapToObj(this::getMethod);
+    }
+
+    @Override
+    public int getNumberOfMethods() {
+        return nMethods;
+    }
+
+    @Override
+    public boolean contains(JMethod method) {
+        return getMethodId(method) != null;
+    }
+
+    // ---------- Graph APIs ----------
+
+    @Override
+    public boolean hasNode(JMethod node) {
+        return contains(node);
+    }
+
+    @Override
+    public boolean hasEdge(JMethod source, JMethod target) {
+        return getCalleesOfM(source).contains(target);
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getInEdgesOf(JMethod method) {
+        Set<MethodEdge<Invoke, JMethod>> result = Sets.newHybridSet();
+        edgesInTo(method).forEach(e -> result.add(new MethodEdge<>(
+                e.getCallSite().getContainer(), method, e.getCallSite())));
+        return result;
+    }
+
+    @Override
+    public Set<MethodEdge<Invoke, JMethod>> getOutEdgesOf(JMethod method) {
+        Set<MethodEdge<Invoke, JMethod>> result = Sets.newHybridSet();
+        getCallSitesIn(method).forEach(callSite ->
+                edgesOutOf(callSite).forEach(e -> result.add(
+                        new MethodEdge<>(method, e.getCallee(), callSite))));
+        return result;
+    }
+
+    @Override
+    public Set<JMethod> getPredsOf(JMethod node) {
+        Set<JMethod> result = Sets.newHybridSet();
+        getCallersOf(node).forEach(callSite -> result.add(callSite.getContainer()));
+        return result;
+    }
+
+    @Override
+    public Set<JMethod> getSuccsOf(JMethod node) {
+        return getCalleesOfM(node);
+    }
+
+    @Override
+    public Set<JMethod> getNodes() {
+        Set<JMethod> result = Sets.newSet(nMethods);
+        reachableMethods().forEach(result::add);
+        return result;
+    }
+
+    // ---------- StmtResult APIs ----------
+
+    @Override
+    public boolean isRelevant(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public Set<JMethod> getResult(Stmt stmt) {
+        return getCalleesOf((Invoke) stmt);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import pascal.taie.World;
+import pascal.taie.ir.exp.ClassLiteral;
+import pascal.taie.ir.exp.Literal;
+import pascal.taie.ir.exp.NewInstance;
+import pascal.taie.ir.exp.StringLiteral;
+import pascal.taie.ir.proginfo.MethodRef;
+import pascal.taie.ir.stmt.AssignLiteral;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.New;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.ClassNames;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Implementation of Rapid Type Analysis (RTA).
+ * <p>
+ * Like CHA, RTA resolves virtual and interface calls by the class hierarchy,
+ * but it only dispatches on the classes that are instantiated (by
+ * {@link New} statements, and by string and class literals, which create
+ * {@code java.lang.String} and {@code java.lang.Class} objects)
+ * in reachable methods. When a class becomes
+ * instantiated, the pending virtual calls whose declaring classes are its
+ * supertypes are dispatched on it; when a virtual call becomes reachable,
+ * it is dispatched on the instantiated subtypes of its declaring class.
+ * <p>
+ * Objects created implicitly, e.g., by the JVM or via reflection,
+ * are not taken into account.
+ */
+class RTABuilder implements CGBuilder<Invoke, JMethod> {
+
+    private ClassHierarchy hierarchy;
+
+    private DefaultCallGraph callGraph;
+
+    private Queue<JMethod> workList;
+
+    /**
+     * Classes instantiated in reachable methods.
+     */
+    private final Set<JClass> instantiated = Sets.newSet();
+
+    /**
+     * Reachable virtual and interface call sites,
+     * grouped by the declaring classes of their method references.
+     */
+    private final MultiMap<JClass, Invoke> virtualCalls = Maps.newMultiMap();
+
+    @Override
+    public CallGraph<Invoke, JMethod> build() {
+        hierarchy = World.get().getClassHierarchy();
+        callGraph = new DefaultCallGraph();
+        workList = new LinkedList<>();
+        JMethod entry = World.get().getMainMethod();
+        callGraph.addEntryMethod(entry);
+        workList.add(entry);
+        while (!workList.isEmpty()) {
+            JMethod method = workList.remove();
+            if (callGraph.addReachableMethod(method) && !method.isAbstract()) {
+                processMethod(method);
+            }
+        }
+        return callGraph;
+    }
+
+    private void processMethod(JMethod method) {
+        for (Stmt stmt : method.getIR()) {
+            if (stmt instanceof New newStmt &&
+                    newStmt.getRValue() instanceof NewInstance newInstance) {
+                addInstantiated(newInstance.getType().getJClass());
+            } else if (stmt instanceof AssignLiteral assign) {
+                Literal literal = assign.getRValue();
+                if (literal instanceof StringLiteral) {
+                    addInstantiated(hierarchy.getJREClass(ClassNames.STRING));
+                } else if (literal instanceof ClassLiteral) {
+                    addInstantiated(hierarchy.getJREClass(ClassNames.CLASS));
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                processCallSite(invoke);
+            }
+        }
+    }
+
+    private void addInstantiated(JClass jclass) {
+        if (jclass != null && instantiated.add(jclass)) {
+            processNewClass(jclass);
+        }
+    }
+
+    private void processCallSite(Invoke callSite) {
+        MethodRef methodRef = callSite.getMethodRef();
+        JClass declaringClass = methodRef.getDeclaringClass();
+        if (callSite.isStatic()) {
+            addEdge(callSite, declaringClass.getDeclaredMethod(
+                    methodRef.getSubsignature()));
+        } else if (callSite.isSpecial()) {
+            addEdge(callSite, hierarchy.dispatch(
+                    declaringClass, methodRef.getSubsignature()));
+        } else if (callSite.isVirtual() || callSite.isInterface()) {
+            virtualCalls.put(declaringClass, callSite);
+            for (JClass subtype : hierarchy.getConcreteSubtypesOf(declaringClass)) {
+                if (instantiated.contains(subtype)) {
+                    dispatch(callSite, subtype);
+                }
+            }
+        }
+    }
+
+    /**
+     * Dispatches the pending virtual calls on a newly instantiated class.
+     */
+    private void processNewClass(JClass jclass) {
+        Set<JClass> visited = Sets.newHybridSet();
+        Deque<JClass> supertypes = new ArrayDeque<>();
+        supertypes.push(jclass);
+        while (!supertypes.isEmpty()) {
+            JClass supertype = supertypes.pop();
+            if (!visited.add(supertype)) {
+                continue;
+            }
+            for (Invoke callSite : virtualCalls.get(supertype)) {
+                dispatch(callSite, jclass);
+            }
+            if (supertype.getSuperClass() != null) {
+                supertypes.push(supertype.getSuperClass());
+            }
+            supertype.getInterfaces().forEach(supertypes::push);
+        }
+    }
+
+    private void dispatch(Invoke callSite, JClass receiverClass) {
+        JMethod callee = hierarchy.dispatch(receiverClass,
+                callSite.getMethodRef().getSubsignature());
+        if (callee != null && !callee.isAbstract()) {
+            addEdge(callSite, callee);
+        }
+    }
+
+    private void addEdge(Invoke callSite, JMethod callee) {
+        if (callee != null && callGraph.addEdge(new Edge<>(
+                CallGraphs.getCallKind(callSite), callSite, callee))) {
+            workList.add(callee);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Immutable snapshot of an ICFG in which every node has a program-wide
+ * dense id in {@code [0, getNumberOfNodes())}, and the in/out edges of
+ * the nodes are stored in compressed-sparse-row (CSR) arrays.
+ * <p>
+ * The edges of node {@code i} occupy the positions
+ * {@code [getOutStart(i), getOutEnd(i))} (respectively {@code In}) of the
+ * edge arrays, and each position records the edge, the id of the node at
+ * the other end, and the {@link Kind} of the edge. Thus, solvers can
+ * traverse the graph by ids without hashing or allocating.
+ * <p>
+ * The {@link ICFG} methods are delegated to the original ICFG.
+ */
+public class FrozenICFG<Method, Node> implements ICFG<Method, Node> {
+
+    /**
+     * Kinds of ICFG edges.
+     */
+    public enum Kind {
+        NORMAL, CALL_TO_RETURN, CALL, RETURN;
+
+        static Kind of(ICFGEdge<?> edge) {
+            if (edge instanceof NormalEdge) {
+                return NORMAL;
+            } else if (edge instanceof CallToReturnEdge) {
+                return CALL_TO_RETURN;
+            } else if (edge instanceof CallEdge) {
+                return CALL;
+            } else {
+                return RETURN;
+            }
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final ICFG<Method, Node> icfg;
+
+    private final List<Node> nodes;
+
+    private final Map<Node, Integer> ids;
+
+    private final int[] outOffsets;
+
+    private final int[] outTargets;
+
+    private final byte[] outKinds;
+
+    private final ICFGEdge<Node>[] outEdges;
+
+    private final int[] inOffsets;
+
+    private final int[] inSources;
+
+    private final byte[] inKinds;
+
+    private final ICFGEdge<Node>[] inEdges;
+
+    public FrozenICFG(ICFG<Method, Node> icfg) {
+        this.icfg = icfg;
+        nodes = List.copyOf(icfg.getNodes());
+        ids = Maps.newMap(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i) {
+            ids.put(node(i), i);
+        }
+        outOffsets = new int[nodes.size() + 1];
+        inOffsets = new int[nodes.size() + 1];
+        for (int i = 0; i < nodes.size(); ++i) {
+            outOffsets[i + 1] = outOffsets[i] + icfg.getOutEdgesOf(node(i)).size();
+            inOffsets[i + 1] = inOffsets[i] + icfg.getInEdgesOf(node(i)).size();
+        }
+        outTargets = new int[outOffsets[nodes.size()]];
+        outKinds = new byte[outTargets.length];
+        outEdges = newEdgeArray(outTargets.length);
+        inSources = new int[inOffsets[nodes.size()]];
+        inKinds = new byte[inSources.length];
+        inEdges = newEdgeArray(inSources.length);
+        for (int i = 0; i < nodes.size(); ++i) {
+            int pos = outOffsets[i];
+            for (ICFGEdge<Node> edge : icfg.getOutEdgesOf(node(i))) {
+                outTargets[pos] = ids.get(edge.getTarget());
+                outKinds[pos] = (byte) Kind.of(edge).ordinal();
+                outEdges[pos++] = edge;
+            }
+            pos = inOffsets[i];
+            for (ICFGEdge<Node> edge : icfg.getInEdgesOf(node(i))) {
+                inSources[pos] = ids.get(edge.getSource());
+                inKinds[pos] = (byte) Kind.of(edge).ordinal();
+                inEdges[pos++] = edge;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <Node> ICFGEdge<Node>[] newEdgeArray(int length) {
+        return (ICFGEdge<Node>[]) new ICFGEdge<?>[length];
+    }
+
+    private Node node(int id) {
+        return nodes.get(id);
+    }
+
+    // ---------- id-based APIs ----------
+
+    /**
+     * @return the id of given node.
+     */
+    public int getId(Node node) {
+        return ids.get(node);
+    }
+
+    /**
+     * @return the node with given id.
+     */
+    public Node getNode(int id) {
+        return node(id);
+    }
+
+    /**
+     * @return the nodes ordered by their ids.
+     */
+    public List<Node> getNodesById() {
+        return nodes;
+    }
+
+    public int getOutStart(int id) {
+        return outOffsets[id];
+    }
+
+    public int getOutEnd(int id) {
+        return outOffsets[id + 1];
+    }
+
+    /**
+     * @return the id of the target of the out edge at given position.
+     */
+    public int getOutTarget(int pos) {
+        return outTargets[pos];
+    }
+
+    public ICFGEdge<Node> getOutEdge(int pos) {
+        return outEdges[pos];
+    }
+
+    public Kind getOutKind(int pos) {
+        return KINDS[outKinds[pos]];
+    }
+
+    public int getInStart(int id) {
+        return inOffsets[id];
+    }
+
+    public int getInEnd(int id) {
+        return inOffsets[id + 1];
+    }
+
+    /**
+     * @return the id of the source of the in edge at given position.
+     */
+    public int getInSource(int pos) {
+        return inSources[pos];
+    }
+
+    public ICFGEdge<Node> getInEdge(int pos) {
+        return inEdges[pos];
+    }
+
+    public Kind getInKind(int pos) {
+        return KINDS[inKinds[pos]];
+    }
+
+    /**
+     * @return the number of edges.
+     */
+    public int getNumberOfEdges() {
+        return outEdges.length;
+    }
+
+    // ---------- ICFG APIs ----------
+
+    @Override
+    public Stream<Method> entryMethods() {
+        return icfg.entryMethods();
+    }
+
+    @Override
+    public Set<ICFGEdge<Node>> getInEdgesOf(Node node) {
+        return icfg.getInEdgesOf(node);
+    }
+
+    @Override
+    public Set<ICFGEdge<Node>> getOutEdgesOf(Node node) {
+        return icfg.getOutEdgesOf(node);
+    }
+
+    @Override
+    public Set<Method> getCalleesOf(Node callSite) {
+        return icfg.getCalleesOf(callSite);
+    }
+
+    @Override
+    public Set<Method> getCalleesOfM(Method method) {
+        return icfg.getCalleesOfM(method);
+    }
+
+    @Override
+    public Set<Node> getReturnSitesOf(Node callSite) {
+        return icfg.getReturnSitesOf(callSite);
+    }
+
+    @Override
+    public Node getEntryOf(Method method) {
+        return icfg.getEntryOf(method);
+    }
+
+    @Override
+    public Node getExitOf(Method method) {
+        return icfg.getExitOf(method);
+    }
+
+    @Override
+    public Set<Node> getCallersOf(Method method) {
+        return icfg.getCallersOf(method);
+    }
+
+    @Override
+    public Method getContainingMethodOf(Node node) {
+        return icfg.getContainingMethodOf(node);
+    }
+
+    @Override
+    public boolean isCallSite(Node node) {
+        return icfg.isCallSite(node);
+    }
+
+    @Override
+    public boolean hasNode(Node node) {
+        return ids.containsKey(node);
+    }
+
+    @Override
+    public boolean hasEdge(Node source, Node target) {
+        return icfg.hasEdge(source, target);
+    }
+
+    @Override
+    public Set<Node> getPredsOf(Node node) {
+        return icfg.getPredsOf(node);
+    }
+
+    @Override
+    public Set<Node> getSuccsOf(Node node) {
+        return icfg.getSuccsOf(node);
+    }
+
+    @Override
+    public Set<Node> getNodes() {
+        return icfg.getNodes();
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return nodes.size();
+    }
+}
@@ -54,6 +54,13 @@ public interface ICFG<Method, Node> extends Graph<Node> {
      */
     Set<Method> getCalleesOf(Node callSite);
 
+    /**
+     * @return the methods that are called by the call sites in the given
+     * method. This query is answered by the call graph, and does not
+     * require the edges of the method to be built.
+     */
+    Set<Method> getCalleesOfM(Method method);
+
     /**
      * @return the return sites of the given call site.
      */
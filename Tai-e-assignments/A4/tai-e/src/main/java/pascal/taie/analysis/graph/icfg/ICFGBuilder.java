@@ -0,0 +1,154 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.World;
+import pascal.taie.analysis.ProgramAnalysis;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.graph.cfg.CFGDumper;
+import pascal.taie.config.AnalysisConfig;
+import pascal.taie.config.Configs;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.IDProvider;
+import pascal.taie.util.MapIDProvider;
+import pascal.taie.util.graph.DotDumper;
+import pascal.taie.util.graph.Edge;
+
+import java.io.File;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+public class ICFGBuilder extends ProgramAnalysis {
+
+    public static final String ID = "icfg";
+
+    private static final Logger logger = LogManager.getLogger(ICFGBuilder.class);
+
+    static final Map<String, String> NODE_ATTRIBUTES = Map.of("shape", "box",
+            "style", "filled", "color", "\".3 .2 1.0\"");
+
+    private final boolean isDump;
+
+    /**
+     * If true, builds a {@link LazyICFG}, which materializes the ICFG
+     * of each method on demand.
+     */
+    private final boolean isLazy;
+
+    /**
+     * If true, builds a {@link ParallelICFG} with {@link #parallelism} threads.
+     */
+    private final boolean isParallel;
+
+    /**
+     * If true, dumps the ICFG as one DOT file per method
+     * by {@link MethodICFGDumper}.
+     */
+    private final boolean isDumpPerMethod;
+
+    private final int parallelism;
+
+    public ICFGBuilder(AnalysisConfig config) {
+        super(config);
+        isDump = getOptions().getBoolean("dump");
+        isLazy = getOptions().getBooleanOrDefault("lazy", false);
+        isParallel = getOptions().getBooleanOrDefault("parallel", false);
+        isDumpPerMethod = getOptions().getBooleanOrDefault("dump-per-method", false);
+        this.parallelism = getOptions().get("parallelism") != null ?
+                getOptions().getInt("parallelism") :
+                Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public ICFG<JMethod, Stmt> analyze() {
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        ICFG<JMethod, Stmt> icfg;
+        if (isLazy) {
+            icfg = new LazyICFG(callGraph);
+        } else if (isParallel) {
+            icfg = new ParallelICFG(callGraph, parallelism);
+        } else {
+            icfg = new DefaultICFG(callGraph);
+        }
+        if (isDump) {
+            if (isDumpPerMethod) {
+                File dir = new File(Configs.getOutputDir(),
+                        getDumpName(icfg) + "-icfg");
+                logger.info("Dumping ICFG to {} ...", dir);
+                new MethodICFGDumper(icfg, callGraph.reachableMethods().toList())
+                        .dump(dir.toPath(), parallelism);
+            } else {
+                dumpICFG(icfg);
+            }
+        }
+        return icfg;
+    }
+
+    private static String getDumpName(ICFG<JMethod, Stmt> icfg) {
+        return icfg.entryMethods()
+                .map(m -> m.getDeclaringClass() + "." + m.getName())
+                .collect(Collectors.joining("-"));
+    }
+
+    private static void dumpICFG(ICFG<JMethod, Stmt> icfg) {
+        String fileName = new File(Configs.getOutputDir(),
+                getDumpName(icfg) + "-icfg.dot")
+                .toString();
+        logger.info("Dumping ICFG to {} ...", fileName);
+        IDProvider<Stmt> provider = new MapIDProvider<>();
+        new DotDumper<Stmt>()
+                .setNodeToString(n -> Integer.toString(provider.getID(n)))
+                .setNodeLabeler(n -> toLabel(n, icfg))
+                .setGlobalNodeAttributes(NODE_ATTRIBUTES)
+                .setEdgeAttrs(ICFGBuilder::getEdgeAttributes)
+                .dump(icfg, fileName);
+    }
+
+    static Map<String, String> getEdgeAttributes(Edge<Stmt> edge) {
+        if (edge instanceof CallEdge) {
+            return Map.of("style", "dashed", "color", "blue");
+        } else if (edge instanceof ReturnEdge) {
+            return Map.of("style", "dashed", "color", "red");
+        } else if (edge instanceof CallToReturnEdge) {
+            return Map.of("style", "dashed");
+        } else {
+            return Map.of();
+        }
+    }
+
+    private static String toLabel(Stmt stmt, ICFG<JMethod, Stmt> icfg) {
+        JMethod method = icfg.getContainingMethodOf(stmt);
+        CFG<Stmt> cfg = getCFGOf(method);
+        return CFGDumper.toLabel(stmt, cfg);
+    }
+
+    static CFG<Stmt> getCFGOf(JMethod method) {
+        return method.getIR().getResult(CFGBuilder.ID);
+    }
+}
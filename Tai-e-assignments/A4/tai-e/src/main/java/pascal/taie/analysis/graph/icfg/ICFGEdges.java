@@ -0,0 +1,105 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.Edge;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.Return;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.type.ClassType;
+import pascal.taie.util.collection.Sets;
+
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Builds ICFG edges from the CFGs of methods. Shared by the ICFGs that
+ * construct their edges method by method.
+ */
+final class ICFGEdges {
+
+    private static final Logger logger = LogManager.getLogger(ICFGEdges.class);
+
+    private ICFGEdges() {
+    }
+
+    /**
+     * Builds the intra-procedural edges of {@code cfg}, and the call and
+     * return edges of its call sites, and passes them to {@code consumer}.
+     *
+     * @param cfgOf obtains the CFG of a callee, or null if it is absent.
+     */
+    static void build(CFG<Stmt> cfg, ICFG<JMethod, Stmt> icfg,
+                      Function<JMethod, CFG<Stmt>> cfgOf,
+                      Consumer<ICFGEdge<Stmt>> consumer) {
+        cfg.forEach(stmt -> {
+            boolean isCallSite = icfg.isCallSite(stmt);
+            cfg.getOutEdgesOf(stmt).forEach(edge ->
+                    consumer.accept(isCallSite ?
+                            new CallToReturnEdge<>(edge) :
+                            new NormalEdge<>(edge)));
+            if (isCallSite) {
+                icfg.getCalleesOf(stmt).forEach(callee -> {
+                    CFG<Stmt> calleeCFG = cfgOf.apply(callee);
+                    if (calleeCFG == null) {
+                        logger.warn("CFG of {} is missing", callee);
+                    } else {
+                        buildInterEdges(cfg, stmt, callee, calleeCFG, consumer);
+                    }
+                });
+            }
+        });
+    }
+
+    private static void buildInterEdges(
+            CFG<Stmt> callerCFG, Stmt callSite, JMethod callee,
+            CFG<Stmt> calleeCFG, Consumer<ICFGEdge<Stmt>> consumer) {
+        // call edges
+        Stmt entry = calleeCFG.getEntry();
+        consumer.accept(new CallEdge<>(callSite, entry, callee));
+        // return edges
+        Stmt exit = calleeCFG.getExit();
+        Set<Var> retVars = Sets.newHybridSet();
+        Set<ClassType> exceptions = Sets.newHybridSet();
+        calleeCFG.getInEdgesOf(exit).forEach(retEdge -> {
+            if (retEdge.getKind() == Edge.Kind.RETURN) {
+                Return ret = (Return) retEdge.getSource();
+                if (ret.getValue() != null) {
+                    retVars.add(ret.getValue());
+                }
+            }
+            if (retEdge.isExceptional()) {
+                exceptions.addAll(retEdge.getExceptions());
+            }
+        });
+        for (Stmt retSite : callerCFG.getSuccsOf(callSite)) {
+            consumer.accept(new ReturnEdge<>(exit, retSite,
+                    callSite, retVars, exceptions));
+        }
+    }
+}
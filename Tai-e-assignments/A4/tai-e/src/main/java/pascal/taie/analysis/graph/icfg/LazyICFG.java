@@ -0,0 +1,202 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.MultiMap;
+import pascal.taie.util.collection.Sets;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ICFG that materializes the edges of a method only when they are first
+ * queried, e.g., when a solver reaches the method. Materializing a method
+ * builds its intra-procedural edges, and the call and return edges of its
+ * call sites; the callees only contribute their entry and exit nodes
+ * until they are materialized in turn.
+ * <p>
+ * Consequently, the in-edges of a method entry (the out-edges of a method
+ * exit) only contain the call (return) edges of the callers that have
+ * been materialized. For a solver that starts from the entry methods,
+ * these are exactly the callers that may have propagated facts.
+ * {@link #getNodes()}, {@link #hasNode(Stmt)} and iteration materialize
+ * all reachable methods.
+ * <p>
+ * This class is not thread-safe until all methods are materialized.
+ */
+class LazyICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(LazyICFG.class);
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> inEdges = Maps.newMultiMap();
+
+    private final MultiMap<Stmt, ICFGEdge<Stmt>> outEdges = Maps.newMultiMap();
+
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = Maps.newMap();
+
+    /**
+     * Methods whose edges have been materialized.
+     */
+    private final Set<JMethod> materialized = Sets.newSet();
+
+    private boolean isComplete = false;
+
+    LazyICFG(CallGraph<Stmt, JMethod> callGraph) {
+        super(callGraph);
+    }
+
+    /**
+     * Obtains the CFG of given method, and records its nodes.
+     *
+     * @return the CFG, or null if the CFG is absent.
+     */
+    private CFG<Stmt> getCFG(JMethod method) {
+        CFG<Stmt> cfg = ICFGBuilder.getCFGOf(method);
+        if (cfg != null && !stmtToCFG.containsKey(cfg.getEntry())) {
+            cfg.forEach(stmt -> stmtToCFG.put(stmt, cfg));
+        }
+        return cfg;
+    }
+
+    /**
+     * Materializes the method that contains given node.
+     */
+    private void materialize(Stmt stmt) {
+        CFG<Stmt> cfg = stmtToCFG.get(stmt);
+        if (cfg != null) {
+            materialize(cfg.getMethod());
+        } else {
+            // the node has not been reached, thus we materialize
+            // all methods to find it
+            materializeAll();
+        }
+    }
+
+    private void materialize(JMethod method) {
+        if (!materialized.add(method)) {
+            return;
+        }
+        CFG<Stmt> cfg = getCFG(method);
+        if (cfg == null) {
+            logger.warn("CFG of {} is absent, try to fix this" +
+                    " by adding option -scope=reachable", method);
+            return;
+        }
+        ICFGEdges.build(cfg, this, this::getCFG, edge -> {
+            outEdges.put(edge.getSource(), edge);
+            inEdges.put(edge.getTarget(), edge);
+        });
+    }
+
+    private void materializeAll() {
+        if (!isComplete) {
+            callGraph.reachableMethods().forEach(this::materialize);
+            isComplete = true;
+        }
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        materialize(stmt);
+        return inEdges.get(stmt);
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        materialize(stmt);
+        return outEdges.get(stmt);
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return getCFG(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return getCFG(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return getCFGOf(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        return getCFGOf(stmt).getMethod();
+    }
+
+    private CFG<Stmt> getCFGOf(Stmt stmt) {
+        CFG<Stmt> cfg = stmtToCFG.get(stmt);
+        if (cfg == null) {
+            materializeAll();
+            cfg = stmtToCFG.get(stmt);
+        }
+        return cfg;
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return getNodes().contains(stmt);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        materializeAll();
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+}
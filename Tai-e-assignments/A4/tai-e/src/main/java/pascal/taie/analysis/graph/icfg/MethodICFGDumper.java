@@ -0,0 +1,202 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGDumper;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Dumps an ICFG as one DOT file per method, plus an index.
+ * <p>
+ * The file of the i-th method is {@code i.dot}, which contains the nodes
+ * and intra-procedural edges of the method. The index {@code index.dot}
+ * contains one node per method (labeled by its signature) and one edge
+ * per call edge, labeled by the call site. Methods are dumped in parallel,
+ * and every file is streamed through a buffered channel writer, so that
+ * the memory usage is bounded by the size of the largest method.
+ */
+class MethodICFGDumper {
+
+    private static final Logger logger = LogManager.getLogger(MethodICFGDumper.class);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ICFG<JMethod, Stmt> icfg;
+
+    private final List<JMethod> methods;
+
+    private final Map<JMethod, Integer> methodIds = Maps.newMap();
+
+    MethodICFGDumper(ICFG<JMethod, Stmt> icfg, List<JMethod> methods) {
+        this.icfg = icfg;
+        this.methods = methods;
+        for (int i = 0; i < methods.size(); ++i) {
+            methodIds.put(methods.get(i), i);
+        }
+    }
+
+    void dump(Path dir, int parallelism) {
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            logger.warn("Failed to dump graph to {}, caused by {}", dir, e);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, methods.size())
+                    .parallel()
+                    .forEach(i -> dumpMethod(dir.resolve(i + ".dot"),
+                            methods.get(i))))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+        dumpIndex(dir.resolve("index.dot"));
+    }
+
+    private void dumpMethod(Path file, JMethod method) {
+        CFG<Stmt> cfg = ICFGBuilder.getCFGOf(method);
+        if (cfg == null) {
+            return;
+        }
+        try (Writer out = newWriter(file)) {
+            out.write("digraph G {\n");
+            out.write("  node");
+            writeAttributes(out, ICFGBuilder.NODE_ATTRIBUTES);
+            out.write(";\n");
+            for (Stmt stmt : cfg) {
+                out.write("  \"" + toNodeId(stmt, cfg) + "\" [label=\"" +
+                        CFGDumper.toLabel(stmt, cfg) + "\"];\n");
+            }
+            for (Stmt stmt : cfg) {
+                for (ICFGEdge<Stmt> edge : icfg.getOutEdgesOf(stmt)) {
+                    if (edge instanceof NormalEdge ||
+                            edge instanceof CallToReturnEdge) {
+                        out.write("  \"" + toNodeId(stmt, cfg) + "\" -> \"" +
+                                toNodeId(edge.getTarget(), cfg) + "\"");
+                        writeEdgeAttributes(out, edge);
+                    }
+                }
+            }
+            out.write("}\n");
+        } catch (IOException e) {
+            logger.warn("Failed to dump graph to {}, caused by {}", file, e);
+        }
+    }
+
+    private void dumpIndex(Path file) {
+        try (Writer out = newWriter(file)) {
+            out.write("digraph G {\n");
+            out.write("  node");
+            writeAttributes(out, ICFGBuilder.NODE_ATTRIBUTES);
+            out.write(";\n");
+            for (int i = 0; i < methods.size(); ++i) {
+                out.write("  \"" + i + "\" [label=\"" +
+                        methods.get(i).toString().replace("\"", "\\\"") +
+                        "\"];\n");
+            }
+            for (int i = 0; i < methods.size(); ++i) {
+                CFG<Stmt> cfg = ICFGBuilder.getCFGOf(methods.get(i));
+                if (cfg == null) {
+                    continue;
+                }
+                for (Stmt stmt : cfg) {
+                    if (!icfg.isCallSite(stmt)) {
+                        continue;
+                    }
+                    for (ICFGEdge<Stmt> edge : icfg.getOutEdgesOf(stmt)) {
+                        if (edge instanceof CallEdge<Stmt> call &&
+                                methodIds.containsKey(call.getCallee())) {
+                            out.write("  \"" + i + "\" -> \"" +
+                                    methodIds.get(call.getCallee()) +
+                                    "\" [label=\"" + toNodeId(stmt, cfg) +
+                                    "\",style=dashed,color=blue];\n");
+                        }
+                    }
+                }
+            }
+            out.write("}\n");
+        } catch (IOException e) {
+            logger.warn("Failed to dump graph to {}, caused by {}", file, e);
+        }
+    }
+
+    /**
+     * @return the id of given node, which is unique in its method.
+     */
+    private static String toNodeId(Stmt stmt, CFG<Stmt> cfg) {
+        if (cfg.isEntry(stmt)) {
+            return "entry";
+        } else if (cfg.isExit(stmt)) {
+            return "exit";
+        } else {
+            return Integer.toString(stmt.getIndex());
+        }
+    }
+
+    private static Writer newWriter(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        return new BufferedWriter(Channels.newWriter(channel,
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static void writeAttributes(Writer out, Map<String, String> attrs)
+            throws IOException {
+        out.write(" [");
+        for (Map.Entry<String, String> attr : attrs.entrySet()) {
+            out.write(attr.getKey() + "=" + attr.getValue() + ",");
+        }
+        out.write("]");
+    }
+
+    private static void writeEdgeAttributes(Writer out, ICFGEdge<Stmt> edge)
+            throws IOException {
+        Map<String, String> attrs = ICFGBuilder.getEdgeAttributes(edge);
+        if (!attrs.isEmpty()) {
+            writeAttributes(out, attrs);
+        }
+        out.write(";\n");
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Views;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * ICFG whose edges are built in parallel. The reachable methods are
+ * processed on a fork-join pool, and each of them adds its
+ * intra-procedural edges and the call and return edges of its call sites
+ * to a concurrent edge store.
+ * <p>
+ * The IR and CFGs of the reachable methods are obtained sequentially
+ * before the parallel build, as IR may be built lazily and IR building
+ * is not thread-safe.
+ * <p>
+ * The ICFG is complete after construction, and it is read-only and
+ * thread-safe afterwards.
+ */
+class ParallelICFG extends AbstractICFG<JMethod, Stmt> {
+
+    private static final Logger logger = LogManager.getLogger(ParallelICFG.class);
+
+    private final Map<Stmt, Set<ICFGEdge<Stmt>>> inEdges = Maps.newConcurrentMap();
+
+    private final Map<Stmt, Set<ICFGEdge<Stmt>>> outEdges = Maps.newConcurrentMap();
+
+    private final Map<Stmt, CFG<Stmt>> stmtToCFG = Maps.newConcurrentMap();
+
+    /**
+     * CFGs of the reachable methods, which are read-only during
+     * the parallel build.
+     */
+    private final Map<JMethod, CFG<Stmt>> cfgs = Maps.newMap();
+
+    ParallelICFG(CallGraph<Stmt, JMethod> callGraph, int parallelism) {
+        super(callGraph);
+        List<JMethod> methods = callGraph.reachableMethods().toList();
+        for (JMethod method : methods) {
+            CFG<Stmt> cfg = ICFGBuilder.getCFGOf(method);
+            if (cfg != null) {
+                cfgs.put(method, cfg);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> methods.parallelStream().forEach(this::build))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void build(JMethod method) {
+        CFG<Stmt> cfg = cfgs.get(method);
+        if (cfg == null) {
+            logger.warn("CFG of {} is absent, try to fix this" +
+                    " by adding option -scope=reachable", method);
+            return;
+        }
+        cfg.forEach(stmt -> stmtToCFG.put(stmt, cfg));
+        ICFGEdges.build(cfg, this, cfgs::get, edge -> {
+            outEdges.computeIfAbsent(edge.getSource(),
+                    __ -> ConcurrentHashMap.newKeySet()).add(edge);
+            inEdges.computeIfAbsent(edge.getTarget(),
+                    __ -> ConcurrentHashMap.newKeySet()).add(edge);
+        });
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getInEdgesOf(Stmt stmt) {
+        return Collections.unmodifiableSet(
+                inEdges.getOrDefault(stmt, Set.of()));
+    }
+
+    @Override
+    public Set<ICFGEdge<Stmt>> getOutEdgesOf(Stmt stmt) {
+        return Collections.unmodifiableSet(
+                outEdges.getOrDefault(stmt, Set.of()));
+    }
+
+    @Override
+    public Stmt getEntryOf(JMethod method) {
+        return ICFGBuilder.getCFGOf(method).getEntry();
+    }
+
+    @Override
+    public Stmt getExitOf(JMethod method) {
+        return ICFGBuilder.getCFGOf(method).getExit();
+    }
+
+    @Override
+    public Set<Stmt> getReturnSitesOf(Stmt callSite) {
+        assert isCallSite(callSite);
+        return stmtToCFG.get(callSite).getSuccsOf(callSite);
+    }
+
+    @Override
+    public JMethod getContainingMethodOf(Stmt stmt) {
+        return stmtToCFG.get(stmt).getMethod();
+    }
+
+    @Override
+    public boolean isCallSite(Stmt stmt) {
+        return stmt instanceof Invoke;
+    }
+
+    @Override
+    public boolean hasNode(Stmt stmt) {
+        return stmtToCFG.containsKey(stmt);
+    }
+
+    @Override
+    public boolean hasEdge(Stmt source, Stmt target) {
+        return getOutEdgesOf(source)
+                .stream()
+                .anyMatch(edge -> edge.getTarget().equals(target));
+    }
+
+    @Override
+    public Set<Stmt> getPredsOf(Stmt stmt) {
+        return Views.toMappedSet(getInEdgesOf(stmt), ICFGEdge::getSource);
+    }
+
+    @Override
+    public Set<Stmt> getSuccsOf(Stmt stmt) {
+        return Views.toMappedSet(getOutEdgesOf(stmt), ICFGEdge::getTarget);
+    }
+
+    @Override
+    public Set<Stmt> getNodes() {
+        return Collections.unmodifiableSet(stmtToCFG.keySet());
+    }
+}
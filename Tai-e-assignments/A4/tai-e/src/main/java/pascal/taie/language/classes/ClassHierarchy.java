@@ -75,6 +75,23 @@ public interface ClassHierarchy {
      */
     Collection<JClass> getDirectSubclassesOf(JClass jclass);
 
+    /**
+     * @return true if {@code subtype} is {@code supertype}, or a transitive
+     * subclass, subinterface or implementor of {@code supertype}.
+     */
+    boolean isSubtype(JClass supertype, JClass subtype);
+
+    /**
+     * @return all (transitive) subclasses, subinterfaces and implementors
+     * of given class or interface, including itself.
+     */
+    Collection<JClass> getAllSubtypesOf(JClass jclass);
+
+    /**
+     * @return the non-abstract classes in {@link #getAllSubtypesOf(JClass)}.
+     */
+    Collection<JClass> getConcreteSubtypesOf(JClass jclass);
+
     /**
      * Obtains a JRE class by it name.
      *
@@ -87,6 +104,16 @@ public interface ClassHierarchy {
 
     @Nullable JMethod resolveMethod(MethodRef methodRef);
 
+    /**
+     * Looks up the method with given subsignature that is declared in
+     * given class or its closest superclass. The result may be abstract.
+     *
+     * @return the dispatched method, or null if neither the class nor
+     * its superclasses declare such a method.
+     */
+    @Nullable
+    JMethod dispatch(JClass jclass, Subsignature subsignature);
+
     /**
      * Obtains a method declared in a JRE class by its signature.
      *
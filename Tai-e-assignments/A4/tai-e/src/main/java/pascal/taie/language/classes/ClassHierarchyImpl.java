@@ -28,12 +28,16 @@ import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.util.AnalysisException;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
 import static pascal.taie.util.collection.Maps.newMap;
 import static pascal.taie.util.collection.Maps.newSmallMap;
 import static pascal.taie.util.collection.Sets.newHybridSet;
@@ -65,6 +69,20 @@ public class ClassHierarchyImpl implements ClassHierarchy {
      */
     private final Map<JClass, Set<JClass>> directSubclasses = newMap();
 
+    /**
+     * Cache of {@link #dispatch(JClass, Subsignature)}. Null results are
+     * cached as empty {@link Optional}s. The table is concurrent so that
+     * dispatch can be used by parallel call graph builders.
+     */
+    private final Map<JClass, Map<Subsignature, Optional<JMethod>>> dispatchTable =
+            newConcurrentMap();
+
+    /**
+     * Index for subtype queries, which is built on the first query after
+     * classes are added, and discarded when a class is added.
+     */
+    private volatile SubtypeIndex subtypeIndex;
+
     @Override
     public void setDefaultClassLoader(JClassLoader loader) {
         this.defaultLoader = loader;
@@ -97,6 +115,7 @@ public class ClassHierarchyImpl implements ClassHierarchy {
 
     @Override
     public void addClass(JClass jclass) {
+        subtypeIndex = null;
         // Add direct subinterface
         if (jclass.isInterface()) {
             jclass.getInterfaces().forEach(iface ->
@@ -160,6 +179,38 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return directSubclasses.getOrDefault(jclass, Set.of());
     }
 
+    @Override
+    public boolean isSubtype(JClass supertype, JClass subtype) {
+        return getSubtypeIndex().isSubtype(supertype, subtype);
+    }
+
+    @Override
+    public Collection<JClass> getAllSubtypesOf(JClass jclass) {
+        return getSubtypeIndex().getAllSubtypesOf(jclass);
+    }
+
+    @Override
+    public Collection<JClass> getConcreteSubtypesOf(JClass jclass) {
+        return getSubtypeIndex().getConcreteSubtypesOf(jclass);
+    }
+
+    private SubtypeIndex getSubtypeIndex() {
+        SubtypeIndex index = subtypeIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = subtypeIndex;
+                if (index == null) {
+                    index = new SubtypeIndex(allClasses().toList(),
+                            this::getDirectSubclassesOf,
+                            this::getDirectSubinterfacesOf,
+                            this::getDirectImplementorsOf);
+                    subtypeIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+
     private static boolean checkCHA = false;
 
     public static void setCheckCHA(boolean checkCHA) {
@@ -193,6 +244,38 @@ public class ClassHierarchyImpl implements ClassHierarchy {
         return null;
     }
 
+    @Override
+    public @Nullable
+    JMethod dispatch(JClass jclass, Subsignature subsignature) {
+        List<JClass> path = null;
+        JMethod method = null;
+        for (JClass c = jclass; c != null; c = c.getSuperClass()) {
+            Map<Subsignature, Optional<JMethod>> cached = dispatchTable.get(c);
+            Optional<JMethod> result = cached != null ? cached.get(subsignature) : null;
+            if (result != null) {
+                method = result.orElse(null);
+                break;
+            }
+            if (path == null) {
+                path = new ArrayList<>();
+            }
+            path.add(c);
+            method = c.getDeclaredMethod(subsignature);
+            if (method != null) {
+                break;
+            }
+        }
+        if (path != null) {
+            // all classes on the path dispatch to the same method
+            Optional<JMethod> result = Optional.ofNullable(method);
+            for (JClass c : path) {
+                dispatchTable.computeIfAbsent(c, __ -> newConcurrentMap())
+                        .put(subsignature, result);
+            }
+        }
+        return method;
+    }
+
     private JMethod lookupMethod(JClass jclass, Subsignature subsignature,
                                  boolean allowAbstract) {
         for (JClass c = jclass; c != null; c = c.getSuperClass()) {
@@ -0,0 +1,226 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static pascal.taie.util.collection.Maps.newConcurrentMap;
+import static pascal.taie.util.collection.Maps.newMap;
+import static pascal.taie.util.collection.Sets.newSet;
+
+/**
+ * Index for subtype queries over a class hierarchy.
+ * <p>
+ * Classes are numbered by a preorder traversal of the class tree, so the
+ * subclasses of each class occupy the interval {@code [pre, last]}, and
+ * subclass tests take constant time. Interfaces are numbered after all
+ * classes, and the transitive subtypes of each interface (its
+ * subinterfaces, implementors and their subclasses) are kept as a bit set
+ * over these numbers. The collections of all subtypes and of concrete
+ * subtypes are computed on demand and cached.
+ * <p>
+ * The index is a snapshot: it does not reflect classes added afterwards.
+ * It is immutable after construction except for the caches, which are
+ * thread-safe.
+ */
+class SubtypeIndex {
+
+    private static final String OBJECT = "java.lang.Object";
+
+    /**
+     * Classes and interfaces ordered by their ids.
+     */
+    private final List<JClass> classes = new ArrayList<>();
+
+    private final Map<JClass, Integer> ids = newMap();
+
+    /**
+     * For each class, the largest id of its (transitive) subclasses.
+     */
+    private final Map<JClass, Integer> lastIds = newMap();
+
+    /**
+     * For each interface, the ids of its (transitive) subtypes.
+     */
+    private final Map<JClass, BitSet> interfaceSubtypes = newMap();
+
+    /**
+     * Caches of subtype collections, which are concurrent so that
+     * the index can be queried by parallel call graph builders.
+     */
+    private final Map<JClass, List<JClass>> allSubtypes = newConcurrentMap();
+
+    private final Map<JClass, List<JClass>> concreteSubtypes = newConcurrentMap();
+
+    SubtypeIndex(Collection<JClass> allClasses,
+                 Function<JClass, Collection<JClass>> directSubclasses,
+                 Function<JClass, Collection<JClass>> directSubinterfaces,
+                 Function<JClass, Collection<JClass>> directImplementors) {
+        // number classes in preorder of the class tree, whose roots are
+        // the classes without superclass or with a superclass missing
+        // from the hierarchy
+        Set<JClass> members = newSet(allClasses.size());
+        members.addAll(allClasses);
+        for (JClass c : allClasses) {
+            if (!c.isInterface() && (c.getSuperClass() == null ||
+                    !members.contains(c.getSuperClass()))) {
+                numberSubtree(c, directSubclasses);
+            }
+        }
+        for (JClass c : allClasses) {
+            if (c.isInterface()) {
+                ids.put(c, classes.size());
+                classes.add(c);
+            }
+        }
+        for (JClass c : allClasses) {
+            if (c.isInterface()) {
+                computeInterfaceSubtypes(c, directSubinterfaces,
+                        directImplementors);
+            }
+        }
+    }
+
+    private void numberSubtree(
+            JClass root, Function<JClass, Collection<JClass>> directSubclasses) {
+        Deque<JClass> stack = new ArrayDeque<>();
+        Deque<Iterator<JClass>> children = new ArrayDeque<>();
+        number(root);
+        stack.push(root);
+        children.push(directSubclasses.apply(root).iterator());
+        while (!stack.isEmpty()) {
+            Iterator<JClass> it = children.peek();
+            if (it.hasNext()) {
+                JClass child = it.next();
+                if (!ids.containsKey(child)) {
+                    number(child);
+                    stack.push(child);
+                    children.push(directSubclasses.apply(child).iterator());
+                }
+            } else {
+                lastIds.put(stack.pop(), classes.size() - 1);
+                children.pop();
+            }
+        }
+    }
+
+    private void number(JClass jclass) {
+        ids.put(jclass, classes.size());
+        classes.add(jclass);
+    }
+
+    private BitSet computeInterfaceSubtypes(
+            JClass iface,
+            Function<JClass, Collection<JClass>> directSubinterfaces,
+            Function<JClass, Collection<JClass>> directImplementors) {
+        BitSet subtypes = interfaceSubtypes.get(iface);
+        if (subtypes != null) {
+            return subtypes;
+        }
+        subtypes = new BitSet(classes.size());
+        subtypes.set(ids.get(iface));
+        // put the set before the recursion, in case of (malformed) cycles
+        interfaceSubtypes.put(iface, subtypes);
+        for (JClass sub : directSubinterfaces.apply(iface)) {
+            if (ids.containsKey(sub)) {
+                subtypes.or(computeInterfaceSubtypes(sub,
+                        directSubinterfaces, directImplementors));
+            }
+        }
+        for (JClass impl : directImplementors.apply(iface)) {
+            Integer id = ids.get(impl);
+            if (id != null) {
+                subtypes.set(id, lastIds.get(impl) + 1);
+            }
+        }
+        return subtypes;
+    }
+
+    /**
+     * @return true if {@code subtype} is {@code supertype}, or a transitive
+     * subclass, subinterface or implementor of {@code supertype}.
+     */
+    boolean isSubtype(JClass supertype, JClass subtype) {
+        if (supertype == subtype) {
+            return true;
+        }
+        Integer subId = ids.get(subtype);
+        if (subId == null || !ids.containsKey(supertype)) {
+            return false;
+        }
+        if (supertype.isInterface()) {
+            return interfaceSubtypes.get(supertype).get(subId);
+        } else if (subtype.isInterface()) {
+            return supertype.getName().equals(OBJECT);
+        } else {
+            return ids.get(supertype) <= subId && subId <= lastIds.get(supertype);
+        }
+    }
+
+    /**
+     * @return all subtypes of given class or interface, including itself.
+     */
+    List<JClass> getAllSubtypesOf(JClass jclass) {
+        return allSubtypes.computeIfAbsent(jclass, this::computeAllSubtypes);
+    }
+
+    private List<JClass> computeAllSubtypes(JClass jclass) {
+        Integer id = ids.get(jclass);
+        if (id == null) {
+            return List.of(jclass);
+        }
+        if (jclass.isInterface()) {
+            BitSet subtypes = interfaceSubtypes.get(jclass);
+            List<JClass> result = new ArrayList<>(subtypes.cardinality());
+            for (int i = subtypes.nextSetBit(0); i >= 0;
+                 i = subtypes.nextSetBit(i + 1)) {
+                result.add(classes.get(i));
+            }
+            return Collections.unmodifiableList(result);
+        } else {
+            return Collections.unmodifiableList(
+                    classes.subList(id, lastIds.get(jclass) + 1));
+        }
+    }
+
+    /**
+     * @return the non-abstract classes among the subtypes of given
+     * class or interface.
+     */
+    List<JClass> getConcreteSubtypesOf(JClass jclass) {
+        return concreteSubtypes.computeIfAbsent(jclass, c ->
+                getAllSubtypesOf(c).stream()
+                        .filter(sub -> !sub.isAbstract())
+                        .toList());
+    }
+}
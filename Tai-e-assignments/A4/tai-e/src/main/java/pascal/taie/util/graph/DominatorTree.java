@@ -0,0 +1,207 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dominator tree of the nodes reachable from an entry node,
+ * computed by the iterative algorithm of Cooper, Harvey and Kennedy
+ * ("A Simple, Fast Dominance Algorithm") over reverse postorder.
+ * Dominance queries take constant time, using the preorder intervals
+ * of the nodes in the tree.
+ *
+ * @param <N> type of nodes
+ */
+public class DominatorTree<N> {
+
+    private final IndexedGraph<N> graph;
+
+    private final int entry;
+
+    /**
+     * Immediate dominator of each node; the entry is its own immediate
+     * dominator, and it is -1 for unreachable nodes.
+     */
+    private final int[] idoms;
+
+    /**
+     * Preorder interval {@code [enter, exit)} of each node in the tree.
+     */
+    private final int[] enter;
+
+    private final int[] exit;
+
+    /**
+     * Children of node {@code i} in the tree are {@code children[
+     * childOffsets[i]]} to {@code children[childOffsets[i + 1] - 1]}.
+     */
+    private final int[] childOffsets;
+
+    private final int[] children;
+
+    public DominatorTree(Graph<N> graph, N entry) {
+        this.graph = IndexedGraph.of(graph);
+        this.entry = this.graph.getIndex(entry);
+        if (this.entry < 0) {
+            throw new IllegalArgumentException(entry + " is not in the graph");
+        }
+        int n = this.graph.getNumberOfNodes();
+        ReversePostOrder<N> rpo = new ReversePostOrder<>(this.graph, List.of(entry));
+        idoms = new int[n];
+        Arrays.fill(idoms, -1);
+        idoms[this.entry] = this.entry;
+        int[] predOffsets = this.graph.predOffsets;
+        int[] preds = this.graph.preds;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < rpo.size(); ++i) {
+                int node = rpo.getNodeIndex(i);
+                int newIdom = -1;
+                for (int pos = predOffsets[node]; pos < predOffsets[node + 1]; ++pos) {
+                    int pred = preds[pos];
+                    if (idoms[pred] != -1) {
+                        newIdom = newIdom == -1 ? pred :
+                                intersect(rpo, pred, newIdom);
+                    }
+                }
+                if (idoms[node] != newIdom) {
+                    idoms[node] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+        // build children and preorder intervals
+        childOffsets = new int[n + 1];
+        for (int node = 0; node < n; ++node) {
+            if (idoms[node] != -1 && node != this.entry) {
+                ++childOffsets[idoms[node] + 1];
+            }
+        }
+        for (int node = 0; node < n; ++node) {
+            childOffsets[node + 1] += childOffsets[node];
+        }
+        children = new int[childOffsets[n]];
+        int[] next = Arrays.copyOf(childOffsets, n);
+        for (int node = 0; node < n; ++node) {
+            if (idoms[node] != -1 && node != this.entry) {
+                children[next[idoms[node]]++] = node;
+            }
+        }
+        enter = new int[n];
+        exit = new int[n];
+        int[] frames = new int[n];
+        int[] nextChild = new int[n];
+        int fp = 0, counter = 0;
+        frames[fp++] = this.entry;
+        enter[this.entry] = counter++;
+        nextChild[this.entry] = childOffsets[this.entry];
+        while (fp > 0) {
+            int v = frames[fp - 1];
+            if (nextChild[v] < childOffsets[v + 1]) {
+                int child = children[nextChild[v]++];
+                enter[child] = counter++;
+                nextChild[child] = childOffsets[child];
+                frames[fp++] = child;
+            } else {
+                exit[v] = counter;
+                --fp;
+            }
+        }
+    }
+
+    private int intersect(ReversePostOrder<N> rpo, int a, int b) {
+        while (a != b) {
+            while (rpo.getPosition(a) > rpo.getPosition(b)) {
+                a = idoms[a];
+            }
+            while (rpo.getPosition(b) > rpo.getPosition(a)) {
+                b = idoms[b];
+            }
+        }
+        return a;
+    }
+
+    public N getEntry() {
+        return graph.getNode(entry);
+    }
+
+    /**
+     * @return true if given node is reachable from the entry.
+     */
+    public boolean isReachable(N node) {
+        int index = graph.getIndex(node);
+        return index >= 0 && idoms[index] != -1;
+    }
+
+    /**
+     * @return the immediate dominator of given node, or null if the node
+     * is the entry or unreachable.
+     */
+    public @Nullable N getImmediateDominator(N node) {
+        int index = graph.getIndex(node);
+        if (index < 0 || index == entry || idoms[index] == -1) {
+            return null;
+        }
+        return graph.getNode(idoms[index]);
+    }
+
+    /**
+     * @return the nodes immediately dominated by given node.
+     */
+    public List<N> getChildrenOf(N node) {
+        int index = graph.getIndex(node);
+        if (index < 0) {
+            return List.of();
+        }
+        List<N> result = new ArrayList<>(childOffsets[index + 1] - childOffsets[index]);
+        for (int pos = childOffsets[index]; pos < childOffsets[index + 1]; ++pos) {
+            result.add(graph.getNode(children[pos]));
+        }
+        return result;
+    }
+
+    /**
+     * @return true if {@code dominator} dominates {@code node}.
+     * Every reachable node dominates itself.
+     */
+    public boolean dominates(N dominator, N node) {
+        int d = graph.getIndex(dominator), v = graph.getIndex(node);
+        if (d < 0 || v < 0 || idoms[d] == -1 || idoms[v] == -1) {
+            return false;
+        }
+        return enter[d] <= enter[v] && enter[v] < exit[d];
+    }
+
+    /**
+     * @return true if {@code dominator} dominates {@code node}
+     * and they are different.
+     */
+    public boolean strictlyDominates(N dominator, N node) {
+        return !dominator.equals(node) && dominates(dominator, node);
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import pascal.taie.util.collection.Maps;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Immutable graph whose nodes have dense indexes, and whose successors
+ * and predecessors are stored in compressed-sparse-row arrays.
+ * The graph algorithms in this package run on indexed graphs,
+ * and convert other graphs by {@link #of(Graph)} first.
+ *
+ * @param <N> type of nodes
+ */
+public class IndexedGraph<N> implements Graph<N> {
+
+    private final List<N> nodes;
+
+    private final Map<N, Integer> indexes;
+
+    /**
+     * Successors of node {@code i} are {@code succs[succOffsets[i]]} to
+     * {@code succs[succOffsets[i + 1] - 1]}; so are predecessors.
+     */
+    final int[] succOffsets;
+
+    final int[] succs;
+
+    final int[] predOffsets;
+
+    final int[] preds;
+
+    public IndexedGraph(Graph<N> graph) {
+        this(List.copyOf(graph.getNodes()), graph);
+    }
+
+    private IndexedGraph(List<N> nodes, Graph<N> graph) {
+        this.nodes = nodes;
+        this.indexes = indexesOf(nodes);
+        int n = nodes.size();
+        succOffsets = new int[n + 1];
+        for (int i = 0; i < n; ++i) {
+            succOffsets[i + 1] = succOffsets[i] +
+                    graph.getSuccsOf(nodes.get(i)).size();
+        }
+        succs = new int[succOffsets[n]];
+        for (int i = 0; i < n; ++i) {
+            int pos = succOffsets[i];
+            for (N succ : graph.getSuccsOf(nodes.get(i))) {
+                succs[pos++] = indexes.get(succ);
+            }
+        }
+        predOffsets = new int[n + 1];
+        preds = new int[succs.length];
+        invert(n, succOffsets, succs, predOffsets, preds);
+    }
+
+    /**
+     * Creates an indexed graph from given nodes and successor arrays.
+     */
+    IndexedGraph(List<N> nodes, int[] succOffsets, int[] succs) {
+        this.nodes = nodes;
+        this.indexes = indexesOf(nodes);
+        this.succOffsets = succOffsets;
+        this.succs = succs;
+        predOffsets = new int[nodes.size() + 1];
+        preds = new int[succs.length];
+        invert(nodes.size(), succOffsets, succs, predOffsets, preds);
+    }
+
+    private static <N> Map<N, Integer> indexesOf(List<N> nodes) {
+        Map<N, Integer> indexes = Maps.newMap(nodes.size());
+        for (int i = 0; i < nodes.size(); ++i) {
+            indexes.put(nodes.get(i), i);
+        }
+        return indexes;
+    }
+
+    /**
+     * Fills {@code inOffsets} and {@code ins} with the reverse of the
+     * edges in {@code outOffsets} and {@code outs}.
+     */
+    private static void invert(int n, int[] outOffsets, int[] outs,
+                               int[] inOffsets, int[] ins) {
+        for (int target : outs) {
+            ++inOffsets[target + 1];
+        }
+        for (int i = 0; i < n; ++i) {
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        int[] next = new int[n];
+        System.arraycopy(inOffsets, 0, next, 0, n);
+        for (int i = 0; i < n; ++i) {
+            for (int pos = outOffsets[i]; pos < outOffsets[i + 1]; ++pos) {
+                ins[next[outs[pos]]++] = i;
+            }
+        }
+    }
+
+    /**
+     * @return given graph if it is an indexed graph, otherwise
+     * an indexed copy of it.
+     */
+    public static <N> IndexedGraph<N> of(Graph<N> graph) {
+        return graph instanceof IndexedGraph<N> indexed ?
+                indexed : new IndexedGraph<>(graph);
+    }
+
+    // ---------- index-based APIs ----------
+
+    /**
+     * @return the index of given node, or -1 if this graph
+     * does not contain the node.
+     */
+    public int getIndex(N node) {
+        Integer index = indexes.get(node);
+        return index == null ? -1 : index;
+    }
+
+    public N getNode(int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * @return the nodes of this graph in the order of their indexes.
+     */
+    public List<N> getNodeList() {
+        return nodes;
+    }
+
+    public int getOutDegreeOf(int index) {
+        return succOffsets[index + 1] - succOffsets[index];
+    }
+
+    /**
+     * @return the index of {@code k}-th successor of node {@code index}.
+     */
+    public int getSucc(int index, int k) {
+        return succs[succOffsets[index] + k];
+    }
+
+    public int getInDegreeOf(int index) {
+        return predOffsets[index + 1] - predOffsets[index];
+    }
+
+    /**
+     * @return the index of {@code k}-th predecessor of node {@code index}.
+     */
+    public int getPred(int index, int k) {
+        return preds[predOffsets[index] + k];
+    }
+
+    // ---------- Graph APIs ----------
+
+    @Override
+    public boolean hasNode(N node) {
+        return indexes.containsKey(node);
+    }
+
+    @Override
+    public boolean hasEdge(N source, N target) {
+        Integer s = indexes.get(source), t = indexes.get(target);
+        if (s == null || t == null) {
+            return false;
+        }
+        for (int pos = succOffsets[s]; pos < succOffsets[s + 1]; ++pos) {
+            if (succs[pos] == t) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Set<N> getPredsOf(N node) {
+        Integer index = indexes.get(node);
+        return index == null ? Set.of() :
+                new IndexSet(preds, predOffsets[index], predOffsets[index + 1]);
+    }
+
+    @Override
+    public Set<N> getSuccsOf(N node) {
+        Integer index = indexes.get(node);
+        return index == null ? Set.of() :
+                new IndexSet(succs, succOffsets[index], succOffsets[index + 1]);
+    }
+
+    @Override
+    public Set<N> getNodes() {
+        return new IndexSet(null, 0, nodes.size());
+    }
+
+    @Override
+    public int getNumberOfNodes() {
+        return nodes.size();
+    }
+
+    /**
+     * Unmodifiable set of the nodes whose indexes are {@code ids[start]}
+     * to {@code ids[end - 1]}, or {@code start} to {@code end - 1}
+     * if {@code ids} is null.
+     */
+    private class IndexSet extends AbstractSet<N> {
+
+        private final int[] ids;
+
+        private final int start;
+
+        private final int end;
+
+        private IndexSet(int[] ids, int start, int end) {
+            this.ids = ids;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            Integer index = indexes.get(o);
+            if (index == null) {
+                return false;
+            }
+            if (ids == null) {
+                return start <= index && index < end;
+            }
+            for (int pos = start; pos < end; ++pos) {
+                if (ids[pos] == index) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Iterator<N> iterator() {
+            return new Iterator<>() {
+
+                private int pos = start;
+
+                @Override
+                public boolean hasNext() {
+                    return pos < end;
+                }
+
+                @Override
+                public N next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int i = pos++;
+                    return nodes.get(ids == null ? i : ids[i]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+    }
+}
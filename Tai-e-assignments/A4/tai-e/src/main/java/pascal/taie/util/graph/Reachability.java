@@ -0,0 +1,103 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import pascal.taie.util.collection.Sets;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Multi-source reachability queries on graphs, computed by
+ * breadth-first search with bit sets of visited nodes.
+ */
+public final class Reachability {
+
+    private Reachability() {
+    }
+
+    /**
+     * @return indexes of the nodes reachable from {@code sources}
+     * (including the sources) in given graph.
+     */
+    public static <N> BitSet forward(IndexedGraph<N> graph, Collection<N> sources) {
+        return search(graph, sources, graph.succOffsets, graph.succs);
+    }
+
+    /**
+     * @return indexes of the nodes which can reach {@code targets}
+     * (including the targets) in given graph.
+     */
+    public static <N> BitSet backward(IndexedGraph<N> graph, Collection<N> targets) {
+        return search(graph, targets, graph.predOffsets, graph.preds);
+    }
+
+    /**
+     * @return the nodes reachable from {@code sources} in given graph.
+     */
+    public static <N> Set<N> reachableFrom(Graph<N> graph, Collection<N> sources) {
+        IndexedGraph<N> indexed = IndexedGraph.of(graph);
+        return toSet(indexed, forward(indexed, sources));
+    }
+
+    /**
+     * @return the nodes which can reach {@code targets} in given graph.
+     */
+    public static <N> Set<N> reachableTo(Graph<N> graph, Collection<N> targets) {
+        IndexedGraph<N> indexed = IndexedGraph.of(graph);
+        return toSet(indexed, backward(indexed, targets));
+    }
+
+    private static <N> BitSet search(IndexedGraph<N> graph, Collection<N> roots,
+                                     int[] offsets, int[] adjacents) {
+        int n = graph.getNumberOfNodes();
+        BitSet visited = new BitSet(n);
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        for (N root : roots) {
+            int index = graph.getIndex(root);
+            if (index >= 0 && !visited.get(index)) {
+                visited.set(index);
+                queue[tail++] = index;
+            }
+        }
+        while (head < tail) {
+            int v = queue[head++];
+            for (int pos = offsets[v]; pos < offsets[v + 1]; ++pos) {
+                int w = adjacents[pos];
+                if (!visited.get(w)) {
+                    visited.set(w);
+                    queue[tail++] = w;
+                }
+            }
+        }
+        return visited;
+    }
+
+    private static <N> Set<N> toSet(IndexedGraph<N> graph, BitSet indexes) {
+        Set<N> result = Sets.newSet(indexes.cardinality());
+        indexes.stream().forEach(i -> result.add(graph.getNode(i)));
+        return result;
+    }
+}
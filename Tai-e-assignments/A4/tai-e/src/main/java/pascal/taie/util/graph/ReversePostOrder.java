@@ -0,0 +1,168 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Iterative computation of the reverse postorder of the nodes
+ * reachable from given entries in a graph.
+ *
+ * @param <N> type of nodes
+ */
+public class ReversePostOrder<N> {
+
+    private final IndexedGraph<N> graph;
+
+    /**
+     * Node indexes in reverse postorder.
+     */
+    private final int[] order;
+
+    /**
+     * Position of each node in {@link #order}, or -1 for unreachable nodes.
+     */
+    private final int[] positions;
+
+    /**
+     * Computes the reverse postorder of all nodes of given graph,
+     * starting the traversal from the nodes in their iteration order.
+     */
+    public ReversePostOrder(Graph<N> graph) {
+        this(graph, null);
+    }
+
+    /**
+     * Computes the reverse postorder of the nodes reachable
+     * from {@code entries} in given graph.
+     */
+    public ReversePostOrder(Graph<N> graph, Collection<N> entries) {
+        this.graph = IndexedGraph.of(graph);
+        int n = this.graph.getNumberOfNodes();
+        int[] roots = entries == null ?
+                null :
+                entries.stream().mapToInt(this.graph::getIndex).toArray();
+        int[] postorder = compute(this.graph, roots);
+        order = new int[postorder.length];
+        positions = new int[n];
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < postorder.length; ++i) {
+            int node = postorder[postorder.length - 1 - i];
+            order[i] = node;
+            positions[node] = i;
+        }
+    }
+
+    /**
+     * @return indexes of the nodes reachable from roots (or all nodes
+     * if roots is null) in postorder.
+     */
+    private static int[] compute(IndexedGraph<?> graph, int[] roots) {
+        int[] succOffsets = graph.succOffsets;
+        int[] succs = graph.succs;
+        int n = graph.getNumberOfNodes();
+        BitSet visited = new BitSet(n);
+        int[] nextEdge = new int[n];
+        int[] frames = new int[n];
+        int[] postorder = new int[n];
+        int size = 0;
+        int nRoots = roots == null ? n : roots.length;
+        for (int r = 0; r < nRoots; ++r) {
+            int root = roots == null ? r : roots[r];
+            if (visited.get(root)) {
+                continue;
+            }
+            visited.set(root);
+            nextEdge[root] = succOffsets[root];
+            int fp = 0;
+            frames[fp++] = root;
+            while (fp > 0) {
+                int v = frames[fp - 1];
+                if (nextEdge[v] < succOffsets[v + 1]) {
+                    int w = succs[nextEdge[v]++];
+                    if (!visited.get(w)) {
+                        visited.set(w);
+                        nextEdge[w] = succOffsets[w];
+                        frames[fp++] = w;
+                    }
+                } else {
+                    --fp;
+                    postorder[size++] = v;
+                }
+            }
+        }
+        return Arrays.copyOf(postorder, size);
+    }
+
+    public IndexedGraph<N> getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the reachable nodes in reverse postorder.
+     */
+    public List<N> get() {
+        List<N> result = new ArrayList<>(order.length);
+        for (int node : order) {
+            result.add(graph.getNode(node));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * @return the number of reachable nodes.
+     */
+    public int size() {
+        return order.length;
+    }
+
+    /**
+     * @return the index (in {@link #getGraph()}) of {@code i}-th node
+     * in reverse postorder.
+     */
+    public int getNodeIndex(int i) {
+        return order[i];
+    }
+
+    /**
+     * @return the position of given node in reverse postorder,
+     * or -1 if the node is unreachable.
+     */
+    public int getPosition(N node) {
+        int index = graph.getIndex(node);
+        return index < 0 ? -1 : positions[index];
+    }
+
+    /**
+     * @return the position of node {@code index} in reverse postorder,
+     * or -1 if the node is unreachable.
+     */
+    public int getPosition(int index) {
+        return positions[index];
+    }
+}
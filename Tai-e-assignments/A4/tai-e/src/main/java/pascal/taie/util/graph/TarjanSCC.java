@@ -0,0 +1,250 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Iterative Tarjan's algorithm for computing strongly connected
+ * components, which does not overflow the call stack on deep graphs.
+ * <p>
+ * Components are indexed in topological order, i.e., if there is an edge
+ * from component {@code i} to a different component {@code j},
+ * then {@code i < j}.
+ *
+ * @param <N> type of nodes
+ */
+public class TarjanSCC<N> {
+
+    private final IndexedGraph<N> graph;
+
+    /**
+     * Component index of each node.
+     */
+    private final int[] componentOf;
+
+    /**
+     * Nodes of component {@code i} are {@code members[offsets[i]]} to
+     * {@code members[offsets[i + 1] - 1]}.
+     */
+    private final int[] offsets;
+
+    private final int[] members;
+
+    public TarjanSCC(Graph<N> graph) {
+        this.graph = IndexedGraph.of(graph);
+        int n = this.graph.getNumberOfNodes();
+        componentOf = new int[n];
+        int nComponents = compute();
+        // Tarjan's algorithm finds components in reverse topological order
+        for (int i = 0; i < n; ++i) {
+            componentOf[i] = nComponents - 1 - componentOf[i];
+        }
+        offsets = new int[nComponents + 1];
+        for (int c : componentOf) {
+            ++offsets[c + 1];
+        }
+        for (int c = 0; c < nComponents; ++c) {
+            offsets[c + 1] += offsets[c];
+        }
+        members = new int[n];
+        int[] next = new int[nComponents];
+        System.arraycopy(offsets, 0, next, 0, nComponents);
+        for (int i = 0; i < n; ++i) {
+            members[next[componentOf[i]]++] = i;
+        }
+    }
+
+    /**
+     * Fills {@link #componentOf} with component indexes in reverse
+     * topological order.
+     *
+     * @return the number of components.
+     */
+    private int compute() {
+        int[] succOffsets = graph.succOffsets;
+        int[] succs = graph.succs;
+        int n = graph.getNumberOfNodes();
+        int[] index = new int[n];
+        int[] low = new int[n];
+        int[] nextEdge = new int[n];
+        BitSet visited = new BitSet(n);
+        BitSet onStack = new BitSet(n);
+        int[] stack = new int[n];
+        int[] frames = new int[n];
+        int sp = 0, fp = 0, counter = 0, nComponents = 0;
+        for (int root = 0; root < n; ++root) {
+            if (visited.get(root)) {
+                continue;
+            }
+            visited.set(root);
+            index[root] = low[root] = counter++;
+            nextEdge[root] = succOffsets[root];
+            stack[sp++] = root;
+            onStack.set(root);
+            frames[fp++] = root;
+            while (fp > 0) {
+                int v = frames[fp - 1];
+                if (nextEdge[v] < succOffsets[v + 1]) {
+                    int w = succs[nextEdge[v]++];
+                    if (!visited.get(w)) {
+                        visited.set(w);
+                        index[w] = low[w] = counter++;
+                        nextEdge[w] = succOffsets[w];
+                        stack[sp++] = w;
+                        onStack.set(w);
+                        frames[fp++] = w;
+                    } else if (onStack.get(w)) {
+                        low[v] = Math.min(low[v], index[w]);
+                    }
+                } else {
+                    --fp;
+                    if (low[v] == index[v]) {
+                        int w;
+                        do {
+                            w = stack[--sp];
+                            onStack.clear(w);
+                            componentOf[w] = nComponents;
+                        } while (w != v);
+                        ++nComponents;
+                    }
+                    if (fp > 0) {
+                        int u = frames[fp - 1];
+                        low[u] = Math.min(low[u], low[v]);
+                    }
+                }
+            }
+        }
+        return nComponents;
+    }
+
+    public IndexedGraph<N> getGraph() {
+        return graph;
+    }
+
+    public int getNumberOfComponents() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the index of the component containing given node.
+     */
+    public int getComponentIndex(N node) {
+        return componentOf[graph.getIndex(node)];
+    }
+
+    /**
+     * @return the index of the component containing node {@code index}.
+     */
+    public int getComponentIndex(int index) {
+        return componentOf[index];
+    }
+
+    /**
+     * @return the nodes of component {@code c}.
+     */
+    public List<N> getComponent(int c) {
+        List<N> component = new ArrayList<>(offsets[c + 1] - offsets[c]);
+        for (int pos = offsets[c]; pos < offsets[c + 1]; ++pos) {
+            component.add(graph.getNode(members[pos]));
+        }
+        return Collections.unmodifiableList(component);
+    }
+
+    /**
+     * @return all components in topological order.
+     */
+    public List<List<N>> getComponents() {
+        List<List<N>> components = new ArrayList<>(getNumberOfComponents());
+        for (int c = 0; c < getNumberOfComponents(); ++c) {
+            components.add(getComponent(c));
+        }
+        return components;
+    }
+
+    /**
+     * @return true if component {@code c} contains a cycle, i.e.,
+     * it has multiple nodes, or its only node has a self-loop.
+     */
+    public boolean isTrueComponent(int c) {
+        if (offsets[c + 1] - offsets[c] > 1) {
+            return true;
+        }
+        int node = members[offsets[c]];
+        for (int pos = graph.succOffsets[node]; pos < graph.succOffsets[node + 1]; ++pos) {
+            if (graph.succs[pos] == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the components that contain cycles, in topological order.
+     */
+    public List<List<N>> getTrueComponents() {
+        List<List<N>> components = new ArrayList<>();
+        for (int c = 0; c < getNumberOfComponents(); ++c) {
+            if (isTrueComponent(c)) {
+                components.add(getComponent(c));
+            }
+        }
+        return components;
+    }
+
+    /**
+     * @return the condensation of the graph, i.e., the DAG whose node
+     * {@code i} is component {@code i}, and which has an edge from
+     * component {@code i} to {@code j} iff {@code i != j} and
+     * the graph has an edge from a node of {@code i} to a node of {@code j}.
+     */
+    public IndexedGraph<List<N>> getCondensation() {
+        int nComponents = getNumberOfComponents();
+        int[] stamps = new int[nComponents];
+        Arrays.fill(stamps, -1);
+        int[] succOffsets = new int[nComponents + 1];
+        int[] buffer = new int[graph.succs.length];
+        int size = 0;
+        for (int c = 0; c < nComponents; ++c) {
+            stamps[c] = c; // excludes self-loops
+            for (int m = offsets[c]; m < offsets[c + 1]; ++m) {
+                int node = members[m];
+                for (int pos = graph.succOffsets[node];
+                     pos < graph.succOffsets[node + 1]; ++pos) {
+                    int target = componentOf[graph.succs[pos]];
+                    if (stamps[target] != c) {
+                        stamps[target] = c;
+                        buffer[size++] = target;
+                    }
+                }
+            }
+            succOffsets[c + 1] = size;
+        }
+        return new IndexedGraph<>(getComponents(), succOffsets,
+                Arrays.copyOf(buffer, size));
+    }
+}
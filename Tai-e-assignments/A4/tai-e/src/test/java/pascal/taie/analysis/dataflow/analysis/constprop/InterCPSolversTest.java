@@ -0,0 +1,116 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.analysis.constprop;
+
+import org.junit.Test;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+
+/**
+ * Runs the test cases of {@link InterCPTest} with alternative solvers
+ * and ICFG builders, which should produce the same results.
+ */
+public class InterCPSolversTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    private static final String[] INPUTS = {
+            "Example", "Reference", "Fibonacci", "MultiIntArgs"
+    };
+
+    /**
+     * Tests all inputs with given options of inter-constprop,
+     * and given extra arguments.
+     */
+    private static void test(String options, String... args) {
+        for (String input : INPUTS) {
+            String[] opts = new String[args.length + 3];
+            opts[0] = "edge-refine:false;alias-aware:false" +
+                    (options.isEmpty() ? "" : ";" + options);
+            opts[1] = "-a";
+            opts[2] = "cg=algorithm:cha";
+            System.arraycopy(args, 0, opts, 3, args.length);
+            Tests.test(input, CLASS_PATH, InterConstantPropagation.ID, opts);
+        }
+    }
+
+    @Test
+    public void testParallelSolver() {
+        test("solver:parallel;parallelism:4");
+    }
+
+    @Test
+    public void testMethodFirstSchedule() {
+        test("schedule:method-first");
+    }
+
+    @Test
+    public void testMethodFirstScheduleOnLazyICFG() {
+        test("schedule:method-first", "-a", "icfg=lazy:true");
+    }
+
+    @Test
+    public void testEdgeCache() {
+        test("edge-cache:true");
+    }
+
+    @Test
+    public void testEdgeCacheOnSparseSolver() {
+        test("solver:sparse;edge-cache:true;schedule:method-first");
+    }
+
+    @Test
+    public void testIndexedSolver() {
+        test("solver:indexed");
+    }
+
+    @Test
+    public void testIDESolver() {
+        test("solver:ide");
+    }
+
+    @Test
+    public void testSummarySolver() {
+        test("solver:summary");
+    }
+
+    @Test
+    public void testSummarySolverWithOneContext() {
+        test("solver:summary;summary-limit:1");
+    }
+
+    @Test
+    public void testLazyICFG() {
+        test("", "-a", "icfg=lazy:true");
+    }
+
+    @Test
+    public void testSparseSolverOnLazyICFG() {
+        test("solver:sparse", "-a", "icfg=lazy:true");
+    }
+
+    @Test
+    public void testParallelICFG() {
+        test("", "-a", "icfg=parallel:true;parallelism:4");
+    }
+}
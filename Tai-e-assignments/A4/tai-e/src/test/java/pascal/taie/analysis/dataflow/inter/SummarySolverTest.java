@@ -0,0 +1,82 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.icfg.ICFG;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Map;
+
+public class SummarySolverTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    /**
+     * Runs inter-constprop with the summary solver on given input, and
+     * checks that every callee is ranked (thus its summaries are solved)
+     * before its callers, except for the calls inside a recursive SCC.
+     *
+     * @param recursive whether the input has recursive calls
+     */
+    private static void test(String input, boolean recursive) {
+        Tests.test(input, CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:false;solver:summary",
+                "-a", "cg=algorithm:cha");
+        ICFG<JMethod, Stmt> icfg = World.get().getResult(ICFGBuilder.ID);
+        Map<JMethod, Integer> ranks = SummarySolver.rankMethods(icfg);
+        boolean hasSameRankCall = false;
+        for (Stmt node : icfg) {
+            if (icfg.isCallSite(node)) {
+                JMethod caller = icfg.getContainingMethodOf(node);
+                for (JMethod callee : icfg.getCalleesOf(node)) {
+                    int callerRank = ranks.get(caller);
+                    int calleeRank = ranks.get(callee);
+                    Assert.assertTrue(callee + " is ranked after its caller " + caller,
+                            calleeRank <= callerRank);
+                    hasSameRankCall |= calleeRank == callerRank;
+                }
+            }
+        }
+        Assert.assertEquals(recursive, hasSameRankCall);
+        // the entry method is a caller of all other methods
+        int maxRank = ranks.values().stream().max(Integer::compare).orElseThrow();
+        icfg.entryMethods().forEach(entry ->
+                Assert.assertEquals(maxRank, (int) ranks.get(entry)));
+    }
+
+    @Test
+    public void testExample() {
+        test("Example", false);
+    }
+
+    @Test
+    public void testFibonacci() {
+        test("Fibonacci", true);
+    }
+}
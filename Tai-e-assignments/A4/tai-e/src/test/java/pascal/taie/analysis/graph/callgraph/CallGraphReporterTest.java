@@ -0,0 +1,285 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.IRPrinter;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.IDProvider;
+import pascal.taie.util.MapIDProvider;
+import pascal.taie.util.graph.DotDumper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+public class CallGraphReporterTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    /**
+     * Builds the call graph of given main class by CHA, with the given
+     * extra options appended, and returns the result.
+     */
+    private static CallGraph<Invoke, JMethod> build(String main, String options) {
+        Tests.analyze(main, CLASS_PATH, CallGraphBuilder.ID,
+                "algorithm:cha" + (options.isEmpty() ? "" : ";" + options));
+        return World.get().getResult(CallGraphBuilder.ID);
+    }
+
+    /**
+     * Writes reports of given main class with different chunk sizes
+     * (so that one, several and a single-method run are merged) and
+     * compares them with the content of
+     * {@link CallGraphBuilder#logCallGraph(CallGraph)}.
+     */
+    private static void testReport(String main) throws IOException {
+        Path dir = Files.createTempDirectory(main + "-report");
+        try {
+            CallGraph<Invoke, JMethod> callGraph = build(main, "");
+            List<String> expected = expectedReport(callGraph);
+            int nMethods = callGraph.getNumberOfMethods();
+            for (int chunkSize : new int[]{ 1, 2, nMethods, nMethods + 1 }) {
+                for (boolean gzip : new boolean[]{ false, true }) {
+                    Path file = dir.resolve("cg-" + chunkSize +
+                            (gzip ? ".txt.gz" : ".txt"));
+                    CallGraphReporter.writeReport(callGraph, file, gzip, chunkSize);
+                    Assert.assertEquals("chunk-size: " + chunkSize,
+                            expected, readLines(file, gzip));
+                }
+            }
+            // write report via analysis options
+            Path file = dir.resolve("cg-options.txt.gz");
+            build(main, "action:report;chunk-size:1;sample:2;file:" + file);
+            Assert.assertEquals(expected, readLines(file, true));
+            try (Stream<Path> files = Files.list(dir)) {
+                Assert.assertTrue("run files are not deleted",
+                        files.noneMatch(f -> f.getFileName()
+                                .toString().startsWith("cg-run")));
+            }
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    /**
+     * @return the lines logged by {@link CallGraphBuilder#logCallGraph(CallGraph)}.
+     */
+    private static List<String> expectedReport(CallGraph<Invoke, JMethod> callGraph) {
+        List<String> lines = new ArrayList<>();
+        Comparator<JMethod> cmp = Comparator.comparing(JMethod::toString);
+        lines.add("#reachable methods: " + callGraph.getNumberOfMethods());
+        lines.add("---------- Reachable methods: ----------");
+        callGraph.reachableMethods()
+                .sorted(cmp)
+                .forEach(m -> lines.add(m.toString()));
+        lines.add("");
+        lines.add("#call graph edges: " + callGraph.getNumberOfEdges());
+        lines.add("---------- Call graph edges: ----------");
+        callGraph.reachableMethods()
+                .sorted(cmp)
+                .forEach(caller -> callGraph.callSitesIn(caller)
+                        .sorted(Comparator.comparing(Invoke::getIndex))
+                        .filter(callSite -> !callGraph.getCalleesOf(callSite).isEmpty())
+                        .forEach(callSite -> lines.add(CallGraphs.toString(callSite) +
+                                " -> " + callGraph.getCalleesOf(callSite)
+                                .stream()
+                                .sorted(cmp)
+                                .toList())));
+        lines.add("----------------------------------------");
+        return lines;
+    }
+
+    /**
+     * Dumps the call graph of given main class in DOT format, and compares
+     * it with the output of {@link DotDumper} configured as before the
+     * streaming writer was introduced.
+     */
+    private static void testDot(String main) throws IOException {
+        Path dir = Files.createTempDirectory(main + "-dot");
+        try {
+            Path file = dir.resolve("cg.dot.gz");
+            CallGraph<Invoke, JMethod> callGraph = build(main,
+                    "action:dump;log:summary;sample:2;file:" + file);
+            Path baseline = dir.resolve("baseline.dot");
+            IDProvider<JMethod> provider = new MapIDProvider<>();
+            new DotDumper<JMethod>()
+                    .setNodeToString(n -> Integer.toString(provider.getID(n)))
+                    .setNodeLabeler(JMethod::toString)
+                    .setGlobalNodeAttributes(Map.of("shape", "box",
+                            "style", "filled", "color", "\".3 .2 1.0\""))
+                    .setEdgeLabeler(e -> IRPrinter.toString(
+                            ((MethodEdge<Invoke, JMethod>) e).callSite()))
+                    .dump(callGraph, baseline.toString());
+            DotGraph actual = DotGraph.parse(readLines(file, true));
+            DotGraph expected = DotGraph.parse(readLines(baseline, false));
+            Assert.assertEquals(expected.nodeAttrs, actual.nodeAttrs);
+            Assert.assertEquals(expected.nodes, actual.nodes);
+            Assert.assertEquals(expected.edges, actual.edges);
+            Assert.assertEquals(callGraph.getNumberOfMethods(), actual.nodes.size());
+            Assert.assertEquals(callGraph.getNumberOfEdges(),
+                    actual.edges.values().stream().mapToInt(i -> i).sum());
+        } finally {
+            deleteAll(dir);
+        }
+    }
+
+    /**
+     * Minimal model of the DOT files written for call graphs: global node
+     * attributes, node labels, and the multiset of edges given as
+     * (source label, target label, edge label).
+     */
+    private static class DotGraph {
+
+        private static final String ID = "\"((?:[^\"\\\\]|\\\\.)*)\"";
+
+        private static final Pattern GLOBAL = Pattern.compile(
+                "\\s*(node|edge)\\s*\\[(.*)];");
+
+        private static final Pattern NODE = Pattern.compile(
+                "\\s*" + ID + "\\s*\\[(.*)];");
+
+        private static final Pattern EDGE = Pattern.compile(
+                "\\s*" + ID + "\\s*->\\s*" + ID + "\\s*\\[(.*)];");
+
+        private static final Pattern ATTR = Pattern.compile(
+                "(\\w+)=(" + ID + "|[^,\\]]+),?");
+
+        private final Map<String, String> nodeAttrs = new TreeMap<>();
+
+        private final Set<String> nodes = new TreeSet<>();
+
+        private final Map<List<String>, Integer> edges = new HashMap<>();
+
+        private static DotGraph parse(List<String> lines) {
+            Assert.assertEquals("digraph G {", lines.get(0));
+            Assert.assertEquals("}", lines.get(lines.size() - 1));
+            DotGraph graph = new DotGraph();
+            Map<String, String> labels = new HashMap<>();
+            List<List<String>> edges = new ArrayList<>();
+            for (String line : lines.subList(1, lines.size() - 1)) {
+                Matcher m;
+                if ((m = GLOBAL.matcher(line)).matches()) {
+                    if (m.group(1).equals("node")) {
+                        graph.nodeAttrs.putAll(parseAttrs(m.group(2)));
+                    }
+                } else if ((m = EDGE.matcher(line)).matches()) {
+                    edges.add(List.of(unescape(m.group(1)), unescape(m.group(2)),
+                            parseAttrs(m.group(3)).get("label")));
+                } else if ((m = NODE.matcher(line)).matches()) {
+                    String label = parseAttrs(m.group(2)).get("label");
+                    Assert.assertNotNull("node without label: " + line, label);
+                    labels.put(unescape(m.group(1)), label);
+                    graph.nodes.add(label);
+                } else if (!line.isBlank()) {
+                    Assert.fail("unparseable DOT line: " + line);
+                }
+            }
+            for (List<String> edge : edges) {
+                String source = labels.get(edge.get(0));
+                String target = labels.get(edge.get(1));
+                Assert.assertNotNull("undefined node: " + edge.get(0), source);
+                Assert.assertNotNull("undefined node: " + edge.get(1), target);
+                graph.edges.merge(List.of(source, target, edge.get(2)), 1, Integer::sum);
+            }
+            return graph;
+        }
+
+        private static Map<String, String> parseAttrs(String attrs) {
+            Map<String, String> result = new TreeMap<>();
+            Matcher m = ATTR.matcher(attrs);
+            int end = 0;
+            while (m.find()) {
+                Assert.assertTrue("unparseable attributes: " + attrs,
+                        attrs.substring(end, m.start()).isBlank());
+                String value = m.group(3) != null ? unescape(m.group(3)) : m.group(2);
+                result.put(m.group(1), value);
+                end = m.end();
+            }
+            Assert.assertTrue("unparseable attributes: " + attrs,
+                    attrs.substring(end).isBlank());
+            return result;
+        }
+
+        private static String unescape(String s) {
+            return s.replace("\\\"", "\"").replace("\\\\", "\\");
+        }
+    }
+
+    private static List<String> readLines(Path file, boolean gzip) throws IOException {
+        try (InputStream in = gzip ?
+                new GZIPInputStream(Files.newInputStream(file)) :
+                Files.newInputStream(file)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                    .lines()
+                    .toList();
+        }
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    @Test
+    public void testReportVirtualCall() throws IOException {
+        testReport("VirtualCall");
+    }
+
+    @Test
+    public void testReportInterface() throws IOException {
+        testReport("Interface");
+    }
+
+    @Test
+    public void testDotVirtualCall() throws IOException {
+        testDot("VirtualCall");
+    }
+
+    @Test
+    public void testDotInterface() throws IOException {
+        testDot("Interface");
+    }
+}
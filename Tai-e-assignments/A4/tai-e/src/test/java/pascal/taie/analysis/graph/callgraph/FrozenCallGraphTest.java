@@ -0,0 +1,136 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Collection;
+import java.util.Set;
+
+public class FrozenCallGraphTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    /**
+     * Builds the call graph of given main class by CHA, and checks that
+     * its frozen snapshot answers every query as the original one.
+     */
+    private static void test(String main) {
+        Tests.test(main, CLASS_PATH, CallGraphBuilder.ID, "algorithm:cha");
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        FrozenCallGraph<Invoke, JMethod> frozen =
+                ((AbstractCallGraph<Invoke, JMethod>) callGraph).freeze();
+        assertSameGraph(callGraph, frozen);
+        callGraph.reachableMethods().forEach(method ->
+                callGraph.callSitesIn(method).forEach(callSite -> {
+                    Assert.assertEquals(callGraph.isRelevant(callSite),
+                            frozen.isRelevant(callSite));
+                    assertSameElements(callGraph.getResult(callSite),
+                            frozen.getResult(callSite));
+                }));
+    }
+
+    static <CallSite, Method> void assertSameGraph(
+            CallGraph<CallSite, Method> expected, CallGraph<CallSite, Method> actual) {
+        Assert.assertEquals(expected.getNumberOfMethods(), actual.getNumberOfMethods());
+        Assert.assertEquals(expected.getNumberOfEdges(), actual.getNumberOfEdges());
+        assertSameElements(expected.entryMethods().toList(),
+                actual.entryMethods().toList());
+        assertSameElements(expected.getNodes(), actual.getNodes());
+        assertSameElements(expected.edges().toList(),
+                actual.edges().toList());
+        expected.reachableMethods().forEach(method -> {
+            Assert.assertTrue(actual.contains(method));
+            Assert.assertTrue(actual.hasNode(method));
+            assertSameElements(expected.getCallSitesIn(method),
+                    actual.getCallSitesIn(method));
+            assertSameElements(expected.getCallersOf(method),
+                    actual.getCallersOf(method));
+            assertSameElements(expected.getCalleesOfM(method),
+                    actual.getCalleesOfM(method));
+            assertSameElements(expected.getPredsOf(method),
+                    actual.getPredsOf(method));
+            assertSameElements(expected.getSuccsOf(method),
+                    actual.getSuccsOf(method));
+            assertSameElements(expected.getInEdgesOf(method),
+                    actual.getInEdgesOf(method));
+            assertSameElements(expected.getOutEdgesOf(method),
+                    actual.getOutEdgesOf(method));
+            assertSameElements(expected.edgesInTo(method).toList(),
+                    actual.edgesInTo(method).toList());
+            for (Method callee : expected.getSuccsOf(method)) {
+                Assert.assertTrue(actual.hasEdge(method, callee));
+            }
+            for (CallSite callSite : expected.getCallSitesIn(method)) {
+                Assert.assertEquals(expected.getContainerOf(callSite),
+                        actual.getContainerOf(callSite));
+                assertSameElements(expected.getCalleesOf(callSite),
+                        actual.getCalleesOf(callSite));
+                assertSameElements(expected.edgesOutOf(callSite).toList(),
+                        actual.edgesOutOf(callSite).toList());
+            }
+        });
+    }
+
+    /**
+     * Compares given collections as sets. The collections are copied, as
+     * the set views returned by call graphs may not implement equals(),
+     * which also exercises their iterators.
+     */
+    private static void assertSameElements(Collection<?> expected, Collection<?> actual) {
+        Assert.assertEquals(Set.copyOf(expected), Set.copyOf(actual));
+    }
+
+    @Test
+    public void testStaticCall() {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        test("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        test("AbstractMethod");
+    }
+
+    @Test
+    public void testFreezeOption() {
+        Tests.test("VirtualCall", CLASS_PATH, CallGraphBuilder.ID,
+                "algorithm:cha;freeze:true");
+        Assert.assertTrue(World.get().getResult(CallGraphBuilder.ID)
+                instanceof FrozenCallGraph);
+    }
+}
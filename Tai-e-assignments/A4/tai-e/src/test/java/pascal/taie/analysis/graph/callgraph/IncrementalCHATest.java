@@ -0,0 +1,309 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.annotation.AnnotationHolder;
+import pascal.taie.language.classes.ClassHierarchy;
+import pascal.taie.language.classes.JClass;
+import pascal.taie.language.classes.JClassBuilder;
+import pascal.taie.language.classes.JClassLoader;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.language.classes.Modifier;
+import pascal.taie.language.type.ClassType;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class IncrementalCHATest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    /**
+     * Builds the call graph of given main class by CHA, and removes the
+     * edges to the methods of given classes, which gives the call graph
+     * before the classes are loaded (given classes must have no subclasses
+     * and be reached only by dispatch). Then adds the classes back by
+     * {@link IncrementalCHA}, and checks that the updated call graph is
+     * the same as the original one, and the delta is their difference.
+     */
+    private static void test(String main, String... newClassNames) {
+        Tests.test(main, CLASS_PATH, CallGraphBuilder.ID, "algorithm:cha");
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        List<JClass> newClasses = List.of(newClassNames)
+                .stream()
+                .map(hierarchy::getClass)
+                .toList();
+        DefaultCallGraph reduced = removeClasses(callGraph, Set.copyOf(newClasses));
+        Set<JMethod> oldMethods = Set.copyOf(reduced.getNodes());
+        Set<Edge<Invoke, JMethod>> oldEdges = Set.copyOf(reduced.edges().toList());
+        Assert.assertTrue(oldMethods.size() < callGraph.getNumberOfMethods());
+
+        CallGraphDelta delta = new IncrementalCHA(reduced).addClasses(newClasses);
+        FrozenCallGraphTest.assertSameGraph(callGraph, reduced);
+        Assert.assertEquals(callGraph.reachableMethods()
+                        .filter(m -> !oldMethods.contains(m))
+                        .collect(Collectors.toSet()),
+                Set.copyOf(delta.newMethods()));
+        Assert.assertEquals(callGraph.edges()
+                        .filter(e -> !oldEdges.contains(e))
+                        .collect(Collectors.toSet()),
+                Set.copyOf(delta.newEdges()));
+    }
+
+    /**
+     * @return a copy of given call graph without the edges to the methods
+     * of given classes, restricted to the methods that remain reachable.
+     */
+    private static DefaultCallGraph removeClasses(
+            CallGraph<Invoke, JMethod> callGraph, Set<JClass> classes) {
+        DefaultCallGraph reduced = new DefaultCallGraph();
+        Deque<JMethod> workList = new ArrayDeque<>();
+        callGraph.entryMethods().forEach(entry -> {
+            reduced.addEntryMethod(entry);
+            workList.push(entry);
+        });
+        while (!workList.isEmpty()) {
+            JMethod method = workList.pop();
+            if (reduced.addReachableMethod(method)) {
+                callGraph.callSitesIn(method)
+                        .flatMap(callGraph::edgesOutOf)
+                        .filter(edge -> !classes.contains(
+                                edge.getCallee().getDeclaringClass()))
+                        .forEach(edge -> {
+                            Assert.assertTrue(reduced.addEdge(edge));
+                            workList.push(edge.getCallee());
+                        });
+            }
+        }
+        return reduced;
+    }
+
+    /**
+     * Adding classes that are already in the call graph changes nothing.
+     */
+    private static void testNoChange(String main) {
+        Tests.test(main, CLASS_PATH, CallGraphBuilder.ID, "algorithm:cha");
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        DefaultCallGraph copy = removeClasses(callGraph, Set.of());
+        CallGraphDelta delta = new IncrementalCHA(copy).addClasses(
+                World.get().getClassHierarchy().applicationClasses().toList());
+        Assert.assertTrue(delta.isEmpty());
+        FrozenCallGraphTest.assertSameGraph(callGraph, copy);
+    }
+
+    /**
+     * Adds new classes to the class hierarchy after the call graph of
+     * Incremental is built, and updates the call graph by the same
+     * {@link IncrementalCHA} after each class. The classes copy their
+     * methods from Template, so each added Shape subclass has a draw()
+     * that is dispatched by the existing call site and contains a call
+     * site on Shape itself, whose targets cached by the previous update
+     * become stale. Each update is checked against CHA from scratch.
+     */
+    @Test
+    public void testAddClasses() {
+        Tests.analyze("Incremental", CLASS_PATH, CallGraphBuilder.ID, "algorithm:cha");
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        JClass shape = hierarchy.getClass("Shape");
+        JClass template = hierarchy.getClass("Template");
+        AddedClassLoader loader = new AddedClassLoader(hierarchy.getDefaultClassLoader());
+        IncrementalCHA incremental = new IncrementalCHA(removeClasses(callGraph, Set.of()));
+        // build the subtype index before adding classes
+        Assert.assertFalse(hierarchy.isSubtype(shape, template));
+        for (String name : List.of("Square", "Triangle")) {
+            JClass added = loader.define(name, shape, template);
+            hierarchy.addClass(added);
+            Assert.assertTrue(hierarchy.isSubtype(shape, added));
+            JMethod draw = added.getDeclaredMethod("draw");
+            Set<Edge<Invoke, JMethod>> oldEdges = Set.copyOf(
+                    incremental.getCallGraph().edges().toList());
+            CallGraphDelta delta = incremental.addClasses(List.of(added));
+            Assert.assertEquals(List.of(draw), delta.newMethods());
+            Assert.assertFalse(incremental.getCallGraph().getCallSitesIn(draw).isEmpty());
+            CallGraph<Invoke, JMethod> expected = new CHABuilder(false, 1, null).build();
+            FrozenCallGraphTest.assertSameGraph(expected, incremental.getCallGraph());
+            Assert.assertEquals(expected.edges()
+                            .filter(e -> !oldEdges.contains(e))
+                            .collect(Collectors.toSet()),
+                    Set.copyOf(delta.newEdges()));
+        }
+        // a class outside the hierarchy of Shape adds no targets
+        JClass sketch = loader.define("Sketch", template, template);
+        hierarchy.addClass(sketch);
+        Assert.assertTrue(incremental.addClasses(List.of(sketch)).isEmpty());
+        FrozenCallGraphTest.assertSameGraph(new CHABuilder(false, 1, null).build(),
+                incremental.getCallGraph());
+    }
+
+    /**
+     * Defines classes that are absent from the class path, and delegates
+     * other classes to the default class loader.
+     */
+    private static class AddedClassLoader implements JClassLoader {
+
+        private final JClassLoader parent;
+
+        private final Map<String, JClass> classes = new LinkedHashMap<>();
+
+        private AddedClassLoader(JClassLoader parent) {
+            this.parent = parent;
+        }
+
+        /**
+         * Defines a class with given superclass, which has copies of
+         * the methods declared in {@code template}.
+         */
+        private JClass define(String name, JClass superClass, JClass template) {
+            JClass jclass = new JClass(this, name);
+            new CopiedClassBuilder(new ClassType(this, name), superClass, template)
+                    .build(jclass);
+            classes.put(name, jclass);
+            return jclass;
+        }
+
+        @Override
+        public JClass loadClass(String name) {
+            JClass jclass = classes.get(name);
+            return jclass != null ? jclass : parent.loadClass(name);
+        }
+
+        @Override
+        public Collection<JClass> getLoadedClasses() {
+            return classes.values();
+        }
+    }
+
+    private static class CopiedClassBuilder implements JClassBuilder {
+
+        private final ClassType type;
+
+        private final JClass superClass;
+
+        private final JClass template;
+
+        private JClass jclass;
+
+        private CopiedClassBuilder(ClassType type, JClass superClass, JClass template) {
+            this.type = type;
+            this.superClass = superClass;
+            this.template = template;
+        }
+
+        @Override
+        public void build(JClass jclass) {
+            this.jclass = jclass;
+            jclass.build(this);
+        }
+
+        @Override
+        public Set<Modifier> getModifiers() {
+            return template.getModifiers();
+        }
+
+        @Override
+        public String getSimpleName() {
+            return type.getName();
+        }
+
+        @Override
+        public ClassType getClassType() {
+            return type;
+        }
+
+        @Override
+        public JClass getSuperClass() {
+            return superClass;
+        }
+
+        @Override
+        public Collection<JClass> getInterfaces() {
+            return List.of();
+        }
+
+        @Override
+        public JClass getOuterClass() {
+            return null;
+        }
+
+        @Override
+        public Collection<JField> getDeclaredFields() {
+            return List.of();
+        }
+
+        @Override
+        public Collection<JMethod> getDeclaredMethods() {
+            return template.getDeclaredMethods()
+                    .stream()
+                    .map(m -> new JMethod(jclass, m.getName(), m.getModifiers(),
+                            m.getParamTypes(), m.getReturnType(), m.getExceptions(),
+                            AnnotationHolder.emptyHolder(), null, m.getMethodSource()))
+                    .toList();
+        }
+
+        @Override
+        public AnnotationHolder getAnnotationHolder() {
+            return AnnotationHolder.emptyHolder();
+        }
+
+        @Override
+        public boolean isApplication() {
+            return true;
+        }
+    }
+
+    @Test
+    public void testVirtualCall() {
+        test("VirtualCall", "C");
+        test("VirtualCall", "C", "D");
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface", "Zero");
+        test("Interface", "Zero", "Two");
+    }
+
+    @Test
+    public void testStaticCall() {
+        testNoChange("StaticCall");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        testNoChange("AbstractMethod");
+    }
+}
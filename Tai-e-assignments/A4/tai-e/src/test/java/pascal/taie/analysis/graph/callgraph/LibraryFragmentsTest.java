@@ -0,0 +1,89 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class LibraryFragmentsTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    /**
+     * Builds the call graph of given main class by CHA twice with the same
+     * fragments file: the first run computes and saves the library
+     * fragments, and the second run loads them. Both runs are checked
+     * against the expected results, and the loaded fragments must cover
+     * all reachable library methods.
+     */
+    private static void test(String main) throws IOException {
+        Path dir = Files.createTempDirectory(main + "-fragments");
+        Path file = dir.resolve("fragments.bin");
+        String options = "algorithm:cha;library-fragments:" + file;
+        try {
+            Tests.test(main, CLASS_PATH, CallGraphBuilder.ID, options);
+            Assert.assertTrue(Files.exists(file));
+            Tests.test(main, CLASS_PATH, CallGraphBuilder.ID, options);
+            LibraryFragments fragments = LibraryFragments.load(
+                    file, World.get().getClassHierarchy());
+            Assert.assertNotNull(fragments);
+            CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+            Assert.assertEquals(callGraph.reachableMethods()
+                            .filter(m -> LibraryFragments.isLibrary(m.getDeclaringClass()) &&
+                                    !m.isAbstract())
+                            .count(),
+                    fragments.size());
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    public void testStaticCall() throws IOException {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() throws IOException {
+        test("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() throws IOException {
+        test("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() throws IOException {
+        test("AbstractMethod");
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class MappedCallGraphTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    /**
+     * Builds the call graph of given main class by CHA, saves it in the
+     * binary format, and checks that the loaded graph answers every query
+     * as the original one. Then loads the graph in a fresh run via option
+     * {@code load}, and checks it against the expected results.
+     */
+    private static void test(String main) throws IOException {
+        Tests.test(main, CLASS_PATH, CallGraphBuilder.ID, "algorithm:cha");
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        Path file = Files.createTempFile(main + "-cg", ".bin");
+        try {
+            MappedCallGraph.write(callGraph, file);
+            FrozenCallGraphTest.assertSameGraph(callGraph, MappedCallGraph.load(file));
+            Tests.test(main, CLASS_PATH, CallGraphBuilder.ID,
+                    "algorithm:cha;load:" + file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testStaticCall() throws IOException {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() throws IOException {
+        test("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() throws IOException {
+        test("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() throws IOException {
+        test("AbstractMethod");
+    }
+}
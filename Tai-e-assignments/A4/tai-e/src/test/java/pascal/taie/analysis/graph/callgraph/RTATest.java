@@ -0,0 +1,108 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.callgraph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class RTATest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    private static CallGraph<Invoke, JMethod> buildCallGraph(String main, String algorithm) {
+        Tests.analyze(main, CLASS_PATH, CallGraphBuilder.ID, "algorithm:" + algorithm);
+        return World.get().getResult(CallGraphBuilder.ID);
+    }
+
+    /**
+     * Builds the call graphs of given main class by CHA and RTA, and checks
+     * that the RTA call graph is a subgraph of the CHA one. The graphs are
+     * built in different worlds, thus they are compared by their strings.
+     *
+     * @return the RTA call graph.
+     */
+    private static CallGraph<Invoke, JMethod> test(String main) {
+        CallGraph<Invoke, JMethod> cha = buildCallGraph(main, "cha");
+        Set<String> chaMethods = methodsOf(cha);
+        Set<String> chaEdges = edgesOf(cha);
+        CallGraph<Invoke, JMethod> rta = buildCallGraph(main, "rta");
+        Set<String> rtaMethods = methodsOf(rta);
+        Assert.assertTrue(rtaMethods.contains(World.get().getMainMethod().toString()));
+        for (String method : rtaMethods) {
+            Assert.assertTrue("RTA reaches " + method + " but CHA does not",
+                    chaMethods.contains(method));
+        }
+        for (String edge : edgesOf(rta)) {
+            Assert.assertTrue("RTA has edge " + edge + " but CHA does not",
+                    chaEdges.contains(edge));
+        }
+        return rta;
+    }
+
+    private static Set<String> methodsOf(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph.reachableMethods()
+                .map(JMethod::toString)
+                .collect(Collectors.toSet());
+    }
+
+    private static Set<String> edgesOf(CallGraph<Invoke, JMethod> callGraph) {
+        return callGraph.edges()
+                .map(edge -> edge.getCallSite() + " -> " + edge.getCallee())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testStaticCall() {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        CallGraph<Invoke, JMethod> rta = test("VirtualCall");
+        // only B is instantiated, thus b.foo() is dispatched to A.foo()
+        JMethod main = World.get().getMainMethod();
+        Set<String> callees = rta.callSitesIn(main)
+                .filter(callSite -> callSite.getMethodRef().getName().equals("foo"))
+                .flatMap(callSite -> rta.getCalleesOf(callSite).stream())
+                .map(JMethod::toString)
+                .collect(Collectors.toSet());
+        Assert.assertEquals(Set.of("<A: void foo()>"), callees);
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        test("AbstractMethod");
+    }
+}
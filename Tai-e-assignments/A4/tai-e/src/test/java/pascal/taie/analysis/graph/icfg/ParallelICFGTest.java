@@ -0,0 +1,79 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.graph.icfg;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+
+import java.util.Set;
+
+public class ParallelICFGTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    /**
+     * Builds the ICFG of given main class sequentially and in parallel,
+     * and checks that both ICFGs have the same nodes and edges.
+     */
+    private static void test(String main) {
+        Tests.analyze(main, CLASS_PATH, ICFGBuilder.ID, "-a", "cg=algorithm:cha");
+        CallGraph<Stmt, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        ICFG<JMethod, Stmt> expected = new DefaultICFG(callGraph);
+        ICFG<JMethod, Stmt> actual = new ParallelICFG(callGraph, 4);
+        Assert.assertEquals(Set.copyOf(expected.getNodes()), Set.copyOf(actual.getNodes()));
+        for (Stmt node : expected) {
+            Assert.assertEquals(Set.copyOf(expected.getInEdgesOf(node)),
+                    Set.copyOf(actual.getInEdgesOf(node)));
+            Assert.assertEquals(Set.copyOf(expected.getOutEdgesOf(node)),
+                    Set.copyOf(actual.getOutEdgesOf(node)));
+            Assert.assertEquals(expected.getContainingMethodOf(node),
+                    actual.getContainingMethodOf(node));
+        }
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testReference() {
+        test("Reference");
+    }
+
+    @Test
+    public void testFibonacci() {
+        test("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgs() {
+        test("MultiIntArgs");
+    }
+}
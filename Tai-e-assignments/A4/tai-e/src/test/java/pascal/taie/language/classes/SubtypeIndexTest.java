@@ -0,0 +1,106 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.language.classes;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class SubtypeIndexTest {
+
+    private static final String CLASS_PATH = "src/test/resources/cha/";
+
+    /**
+     * Builds the CHA call graph of given main class, which resolves calls
+     * by the subtype index, and checks it against the expected results.
+     * Then checks the subtype queries of the class hierarchy on all pairs
+     * of application classes against a traversal of the direct subtypes.
+     */
+    private static void test(String main) {
+        Tests.test(main, CLASS_PATH, "cg", "algorithm:cha");
+        ClassHierarchy hierarchy = World.get().getClassHierarchy();
+        List<JClass> classes = hierarchy.applicationClasses().toList();
+        for (JClass supertype : classes) {
+            Set<JClass> expected = getSubtypes(hierarchy, supertype);
+            Assert.assertEquals(expected, Set.copyOf(hierarchy.getAllSubtypesOf(supertype)));
+            Assert.assertEquals(
+                    expected.stream().filter(c -> !c.isAbstract()).collect(Collectors.toSet()),
+                    Set.copyOf(hierarchy.getConcreteSubtypesOf(supertype)));
+            for (JClass subtype : classes) {
+                Assert.assertEquals(subtype + " <: " + supertype,
+                        expected.contains(subtype),
+                        hierarchy.isSubtype(supertype, subtype));
+            }
+        }
+    }
+
+    /**
+     * @return given class and its transitive direct subclasses,
+     * subinterfaces and implementors.
+     */
+    private static Set<JClass> getSubtypes(ClassHierarchy hierarchy, JClass jclass) {
+        Set<JClass> subtypes = Sets.newSet();
+        Deque<JClass> workList = new ArrayDeque<>();
+        workList.add(jclass);
+        while (!workList.isEmpty()) {
+            JClass c = workList.poll();
+            if (subtypes.add(c)) {
+                if (c.isInterface()) {
+                    workList.addAll(hierarchy.getDirectSubinterfacesOf(c));
+                    workList.addAll(hierarchy.getDirectImplementorsOf(c));
+                } else {
+                    workList.addAll(hierarchy.getDirectSubclassesOf(c));
+                }
+            }
+        }
+        return subtypes;
+    }
+
+    @Test
+    public void testStaticCall() {
+        test("StaticCall");
+    }
+
+    @Test
+    public void testVirtualCall() {
+        test("VirtualCall");
+    }
+
+    @Test
+    public void testInterface() {
+        test("Interface");
+    }
+
+    @Test
+    public void testAbstractMethod() {
+        test("AbstractMethod");
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.util.graph;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.inter.InterConstantPropagation;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.callgraph.CallGraphBuilder;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+public class GraphAlgorithmsTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/inter";
+
+    /**
+     * Runs inter-constprop on given input and checks it against the
+     * expected results, then checks the graph algorithms on its call graph
+     * and on the CFGs of its application methods.
+     */
+    private static void test(String input) {
+        Tests.test(input, CLASS_PATH, InterConstantPropagation.ID,
+                "edge-refine:false;alias-aware:false", "-a", "cg=algorithm:cha");
+        CallGraph<Invoke, JMethod> callGraph = World.get().getResult(CallGraphBuilder.ID);
+        checkSCC(callGraph, false);
+        checkReversePostOrder(callGraph);
+        World.get().getClassHierarchy().applicationClasses()
+                .flatMap(c -> c.getDeclaredMethods().stream())
+                .filter(m -> !m.isAbstract() && callGraph.contains(m))
+                .forEach(m -> {
+                    CFG<Stmt> cfg = m.getIR().getResult(CFGBuilder.ID);
+                    checkSCC(cfg, true);
+                    checkReversePostOrder(cfg);
+                    checkDominatorTree(cfg, cfg.getEntry());
+                });
+    }
+
+    /**
+     * Checks that the components are in topological order. If
+     * {@code exhaustive} is true, also checks that two nodes are in the
+     * same component iff they reach each other.
+     */
+    private static <N> void checkSCC(Graph<N> graph, boolean exhaustive) {
+        TarjanSCC<N> scc = new TarjanSCC<>(graph);
+        for (N node : graph) {
+            for (N succ : graph.getSuccsOf(node)) {
+                Assert.assertTrue(scc.getComponentIndex(node) <= scc.getComponentIndex(succ));
+            }
+        }
+        if (exhaustive) {
+            for (N node : graph) {
+                Set<N> reachable = Reachability.reachableFrom(graph, List.of(node));
+                for (N other : graph) {
+                    boolean mutual = reachable.contains(other) &&
+                            Reachability.reachableFrom(graph, List.of(other)).contains(node);
+                    Assert.assertEquals(mutual,
+                            scc.getComponentIndex(node) == scc.getComponentIndex(other));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the source of every edge between different components
+     * precedes its target in reverse postorder.
+     */
+    private static <N> void checkReversePostOrder(Graph<N> graph) {
+        TarjanSCC<N> scc = new TarjanSCC<>(graph);
+        ReversePostOrder<N> rpo = new ReversePostOrder<>(graph);
+        Assert.assertEquals(graph.getNumberOfNodes(), rpo.size());
+        for (N node : graph) {
+            for (N succ : graph.getSuccsOf(node)) {
+                if (scc.getComponentIndex(node) != scc.getComponentIndex(succ)) {
+                    Assert.assertTrue(rpo.getPosition(node) < rpo.getPosition(succ));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks dominance against its definition: {@code d} dominates
+     * {@code n} iff {@code n} is unreachable from the entry
+     * when {@code d} is removed.
+     */
+    private static <N> void checkDominatorTree(Graph<N> graph, N entry) {
+        DominatorTree<N> tree = new DominatorTree<>(graph, entry);
+        Set<N> reachable = Reachability.reachableFrom(graph, List.of(entry));
+        for (N d : reachable) {
+            Set<N> avoiding = reachableAvoiding(graph, entry, d);
+            for (N n : reachable) {
+                Assert.assertEquals(d + " dom " + n,
+                        d.equals(entry) || d.equals(n) || !avoiding.contains(n),
+                        tree.dominates(d, n));
+            }
+        }
+        for (N n : reachable) {
+            N idom = tree.getImmediateDominator(n);
+            if (n.equals(entry)) {
+                Assert.assertNull(idom);
+            } else {
+                Assert.assertTrue(tree.strictlyDominates(idom, n));
+                Assert.assertTrue(tree.getChildrenOf(idom).contains(n));
+            }
+        }
+    }
+
+    private static <N> Set<N> reachableAvoiding(Graph<N> graph, N entry, N removed) {
+        Set<N> visited = Sets.newSet();
+        if (entry.equals(removed)) {
+            return visited;
+        }
+        Deque<N> workList = new ArrayDeque<>();
+        workList.push(entry);
+        visited.add(entry);
+        while (!workList.isEmpty()) {
+            for (N succ : graph.getSuccsOf(workList.pop())) {
+                if (!succ.equals(removed) && visited.add(succ)) {
+                    workList.push(succ);
+                }
+            }
+        }
+        return visited;
+    }
+
+    @Test
+    public void testExample() {
+        test("Example");
+    }
+
+    @Test
+    public void testReference() {
+        test("Reference");
+    }
+
+    @Test
+    public void testFibonacci() {
+        test("Fibonacci");
+    }
+
+    @Test
+    public void testMultiIntArgs() {
+        test("MultiIntArgs");
+    }
+
+    /**
+     * The algorithms are iterative, thus they handle graphs
+     * much deeper than the call stack.
+     */
+    @Test
+    public void testDeepGraph() {
+        int n = 200_000;
+        SimpleGraph<Integer> graph = new SimpleGraph<>();
+        for (int i = 0; i < n; ++i) {
+            graph.addNode(i);
+            if (i > 0) {
+                graph.addEdge(i - 1, i);
+            }
+        }
+        graph.addEdge(n - 1, 0);
+        TarjanSCC<Integer> scc = new TarjanSCC<>(graph);
+        Assert.assertEquals(1, scc.getNumberOfComponents());
+        Assert.assertTrue(scc.isTrueComponent(0));
+        ReversePostOrder<Integer> rpo = new ReversePostOrder<>(graph, List.of(0));
+        Assert.assertEquals(n, rpo.size());
+        Assert.assertEquals(n - 1, rpo.getPosition(n - 1));
+        DominatorTree<Integer> tree = new DominatorTree<>(graph, 0);
+        Assert.assertEquals(Integer.valueOf(n - 2), tree.getImmediateDominator(n - 1));
+        Assert.assertTrue(tree.dominates(1, n - 1));
+        Assert.assertEquals(n, Reachability.reachableFrom(graph, List.of(n - 1)).size());
+    }
+}
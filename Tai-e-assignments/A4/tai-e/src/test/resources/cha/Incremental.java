@@ -0,0 +1,28 @@
+public class Incremental {
+
+    public static void main(String[] args) {
+        Shape s = new Circle();
+        s.draw();
+    }
+}
+
+class Shape {
+    void draw() {
+    }
+}
+
+class Circle extends Shape {
+    void draw() {
+    }
+}
+
+/**
+ * Provides the method bodies of the classes that are added
+ * to the class hierarchy by IncrementalCHATest.
+ */
+class Template {
+    void draw() {
+        Shape s = new Circle();
+        s.draw();
+    }
+}
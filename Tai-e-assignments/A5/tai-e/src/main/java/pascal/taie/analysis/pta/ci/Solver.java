@@ -32,12 +32,16 @@ import pascal.taie.analysis.graph.callgraph.Edge;
 import pascal.taie.analysis.pta.core.heap.HeapModel;
 import pascal.taie.analysis.pta.core.heap.Obj;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.ClassHierarchy;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 class Solver {
@@ -52,6 +56,14 @@ class Solver {
 
     private WorkList workList;
 
+    /**
+     * Cache of the callees of virtual and interface calls, keyed by
+     * receiver type and method reference. Failed dispatches are cached
+     * as empty {@link Optional}s, as the map does not accept null values.
+     */
+    private final TwoKeyMap<Type, MethodRef, Optional<JMethod>> dispatchCache =
+            Maps.newTwoKeyMap();
+
     private StmtProcessor stmtProcessor;
 
     private ClassHierarchy hierarchy;
@@ -286,7 +298,16 @@ class Solver {
      */
     private JMethod resolveCallee(Obj recv, Invoke callSite) {
         Type type = recv != null ? recv.getType() : null;
-        return CallGraphs.resolveCallee(type, callSite);
+        if (type == null || !(callSite.isVirtual() || callSite.isInterface())) {
+            return CallGraphs.resolveCallee(type, callSite);
+        }
+        MethodRef methodRef = callSite.getMethodRef();
+        Optional<JMethod> cached = dispatchCache.get(type, methodRef);
+        if (cached == null) {
+            cached = Optional.ofNullable(CallGraphs.resolveCallee(type, callSite));
+            dispatchCache.put(type, methodRef, cached);
+        }
+        return cached.orElse(null);
     }
 
     CIPTAResult getResult() {
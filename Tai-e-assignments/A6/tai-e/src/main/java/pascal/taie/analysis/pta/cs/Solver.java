@@ -50,12 +50,16 @@ import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.*;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 class Solver {
@@ -76,6 +80,14 @@ class Solver {
 
     private WorkList workList;
 
+    /**
+     * Cache of the callees of virtual and interface calls, keyed by
+     * receiver type and method reference. Failed dispatches are cached
+     * as empty {@link Optional}s, as the map does not accept null values.
+     */
+    private final TwoKeyMap<Type, MethodRef, Optional<JMethod>> dispatchCache =
+            Maps.newTwoKeyMap();
+
     private PointerAnalysisResult result;
 
     Solver(AnalysisOptions options, HeapModel heapModel,
@@ -326,7 +338,16 @@ class Solver {
      */
     private JMethod resolveCallee(CSObj recv, Invoke callSite) {
         Type type = recv != null ? recv.getObject().getType() : null;
-        return CallGraphs.resolveCallee(type, callSite);
+        if (type == null || !(callSite.isVirtual() || callSite.isInterface())) {
+            return CallGraphs.resolveCallee(type, callSite);
+        }
+        MethodRef methodRef = callSite.getMethodRef();
+        Optional<JMethod> cached = dispatchCache.get(type, methodRef);
+        if (cached == null) {
+            cached = Optional.ofNullable(CallGraphs.resolveCallee(type, callSite));
+            dispatchCache.put(type, methodRef, cached);
+        }
+        return cached.orElse(null);
     }
 
     PointerAnalysisResult getResult() {
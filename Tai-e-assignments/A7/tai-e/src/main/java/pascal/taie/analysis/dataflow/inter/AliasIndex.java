@@ -0,0 +1,168 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.Pair;
+import pascal.taie.util.collection.Sets;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Alias index over field accesses, built once from a pointer analysis result.
+ * <p>
+ * For each abstract location (object, field) the index records the
+ * {@link StoreField} and {@link LoadField} statements whose base may point
+ * to that object; static fields are keyed by field only (the object part
+ * of the key is {@code null}). In addition, the set of stores that may
+ * write the location read by each load is precomputed as a bit set over
+ * a dense numbering of stores, so alias-aware transfer functions do not
+ * need to intersect points-to sets on the fly.
+ */
+public class AliasIndex {
+
+    private final List<StoreField> stores = new ArrayList<>();
+
+    private final Map<Pair<Obj, JField>, BitSet> storesOf = Maps.newMap();
+
+    private final Map<Pair<Obj, JField>, List<LoadField>> loadsOf = Maps.newMap();
+
+    private final Map<LoadField, BitSet> aliasedStores = Maps.newMap();
+
+    private final Map<StoreField, List<LoadField>> aliasedLoads = Maps.newMap();
+
+    public AliasIndex(PointerAnalysisResult pta) {
+        List<LoadField> loads = new ArrayList<>();
+        pta.getCallGraph().reachableMethods().forEach(m ->
+                m.getIR().forEach(stmt -> {
+                    if (stmt instanceof StoreField store) {
+                        int id = stores.size();
+                        stores.add(store);
+                        for (Pair<Obj, JField> loc : locationsOf(pta, store)) {
+                            storesOf.computeIfAbsent(loc, __ -> new BitSet()).set(id);
+                        }
+                    } else if (stmt instanceof LoadField load) {
+                        loads.add(load);
+                    }
+                }));
+        for (LoadField load : loads) {
+            BitSet bits = new BitSet(stores.size());
+            for (Pair<Obj, JField> loc : locationsOf(pta, load)) {
+                loadsOf.computeIfAbsent(loc, __ -> new ArrayList<>()).add(load);
+                BitSet locStores = storesOf.get(loc);
+                if (locStores != null) {
+                    bits.or(locStores);
+                }
+            }
+            aliasedStores.put(load, bits);
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                aliasedLoads.computeIfAbsent(stores.get(i), __ -> new ArrayList<>())
+                        .add(load);
+            }
+        }
+    }
+
+    private static Set<Pair<Obj, JField>> locationsOf(
+            PointerAnalysisResult pta, FieldStmt<?, ?> stmt) {
+        JField field = stmt.getFieldRef().resolveNullable();
+        if (field == null) {
+            // unresolvable field reference: no location to index
+            return Set.of();
+        }
+        FieldAccess access = stmt.getFieldAccess();
+        if (access instanceof InstanceFieldAccess instanceAccess) {
+            Set<Obj> pts = pta.getPointsToSet(instanceAccess.getBase());
+            Set<Pair<Obj, JField>> locs = Sets.newHybridSet();
+            pts.forEach(obj -> locs.add(new Pair<>(obj, field)));
+            return locs;
+        } else {
+            return Set.of(new Pair<>(null, field));
+        }
+    }
+
+    /**
+     * @return the stores that may write (obj, field). For static fields,
+     * {@code obj} should be {@code null}.
+     */
+    public List<StoreField> getStores(Obj obj, JField field) {
+        return toStores(storesOf.get(new Pair<>(obj, field)));
+    }
+
+    /**
+     * @return the loads that may read (obj, field). For static fields,
+     * {@code obj} should be {@code null}.
+     */
+    public List<LoadField> getLoads(Obj obj, JField field) {
+        return Collections.unmodifiableList(
+                loadsOf.getOrDefault(new Pair<>(obj, field), List.of()));
+    }
+
+    /**
+     * @return the stores that may write the location read by {@code load}.
+     */
+    public List<StoreField> getAliasedStores(LoadField load) {
+        return toStores(aliasedStores.get(load));
+    }
+
+    /**
+     * @return the loads that may read the location written by {@code store}.
+     * These are the loads to revisit when the value of {@code store} changes.
+     */
+    public List<LoadField> getAliasedLoads(StoreField store) {
+        return Collections.unmodifiableList(
+                aliasedLoads.getOrDefault(store, List.of()));
+    }
+
+    /**
+     * @return the number of stores that may write the location
+     * read by {@code load}.
+     */
+    public int getNumberOfAliasedStores(LoadField load) {
+        BitSet bits = aliasedStores.get(load);
+        return bits == null ? 0 : bits.cardinality();
+    }
+
+    private List<StoreField> toStores(BitSet bits) {
+        if (bits == null || bits.isEmpty()) {
+            return List.of();
+        }
+        List<StoreField> result = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            result.add(stores.get(i));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.util.collection.Maps;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Alias index over array accesses, built once from a pointer analysis result.
+ * <p>
+ * Statically, each {@link LoadArray} is associated with the
+ * {@link StoreArray} statements whose array base may point to a common
+ * array object (as a bit set over a dense numbering of stores).
+ * Dynamically, stores are bucketed by the constant/NAC/UNDEF class of their
+ * index, as recorded via {@link #updateIndex(StoreArray, CPFact)} during
+ * the analysis. A load then only meets the aliased stores whose index
+ * may equal its own: a constant index {@code c} matches stores in the
+ * bucket of {@code c} and the NAC bucket, a NAC index matches every
+ * store with a known index, and an UNDEF index matches nothing.
+ */
+public class ArrayAliasIndex {
+
+    private final List<StoreArray> stores = new ArrayList<>();
+
+    private final Map<StoreArray, Integer> storeIds = Maps.newMap();
+
+    private final Map<LoadArray, BitSet> aliasedStores = Maps.newMap();
+
+    private final Map<StoreArray, List<LoadArray>> aliasedLoads = Maps.newMap();
+
+    /**
+     * Current index value of each store, indexed by store id.
+     */
+    private final List<Value> storeIndexes = new ArrayList<>();
+
+    /**
+     * Stores whose index is a given constant.
+     */
+    private final Map<Integer, BitSet> constStores = Maps.newMap();
+
+    /**
+     * Stores whose index is NAC.
+     */
+    private final BitSet nacStores = new BitSet();
+
+    /**
+     * Stores whose index is not UNDEF.
+     */
+    private final BitSet definedStores = new BitSet();
+
+    public ArrayAliasIndex(PointerAnalysisResult pta) {
+        Map<Obj, BitSet> storesOf = Maps.newMap();
+        List<LoadArray> loads = new ArrayList<>();
+        pta.getCallGraph().reachableMethods().forEach(m ->
+                m.getIR().forEach(stmt -> {
+                    if (stmt instanceof StoreArray store) {
+                        int id = stores.size();
+                        stores.add(store);
+                        storeIds.put(store, id);
+                        storeIndexes.add(Value.getUndef());
+                        Set<Obj> pts = pta.getPointsToSet(
+                                store.getArrayAccess().getBase());
+                        for (Obj obj : pts) {
+                            storesOf.computeIfAbsent(obj, __ -> new BitSet()).set(id);
+                        }
+                    } else if (stmt instanceof LoadArray load) {
+                        loads.add(load);
+                    }
+                }));
+        for (LoadArray load : loads) {
+            BitSet bits = new BitSet(stores.size());
+            Set<Obj> pts = pta.getPointsToSet(load.getArrayAccess().getBase());
+            for (Obj obj : pts) {
+                BitSet objStores = storesOf.get(obj);
+                if (objStores != null) {
+                    bits.or(objStores);
+                }
+            }
+            aliasedStores.put(load, bits);
+            for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+                aliasedLoads.computeIfAbsent(stores.get(i), __ -> new ArrayList<>())
+                        .add(load);
+            }
+        }
+    }
+
+    /**
+     * Records the index value of {@code store} under {@code fact}
+     * (the IN fact of the store) and moves the store to the matching bucket.
+     *
+     * @return true if the index class of the store changed.
+     */
+    public boolean updateIndex(StoreArray store, CPFact fact) {
+        Integer id = storeIds.get(store);
+        if (id == null) {
+            return false;
+        }
+        Value index = fact.get(store.getArrayAccess().getIndex());
+        Value old = storeIndexes.get(id);
+        if (old.equals(index)) {
+            return false;
+        }
+        removeFromBucket(id, old);
+        addToBucket(id, index);
+        storeIndexes.set(id, index);
+        return true;
+    }
+
+    private void removeFromBucket(int id, Value index) {
+        if (index.isConstant()) {
+            BitSet bucket = constStores.get(index.getConstant());
+            bucket.clear(id);
+            if (bucket.isEmpty()) {
+                constStores.remove(index.getConstant());
+            }
+        } else if (index.isNAC()) {
+            nacStores.clear(id);
+        }
+        definedStores.clear(id);
+    }
+
+    private void addToBucket(int id, Value index) {
+        if (index.isConstant()) {
+            constStores.computeIfAbsent(index.getConstant(), __ -> new BitSet())
+                    .set(id);
+        } else if (index.isNAC()) {
+            nacStores.set(id);
+        }
+        if (!index.isUndef()) {
+            definedStores.set(id);
+        }
+    }
+
+    /**
+     * @return the stores whose array base may alias the one of {@code load}
+     * and whose index may equal the index of {@code load} under
+     * {@code fact} (the IN fact of the load).
+     */
+    public List<StoreArray> getAliasedStores(LoadArray load, CPFact fact) {
+        BitSet aliased = aliasedStores.get(load);
+        if (aliased == null || aliased.isEmpty()) {
+            return List.of();
+        }
+        Value index = fact.get(load.getArrayAccess().getIndex());
+        BitSet matched;
+        if (index.isConstant()) {
+            matched = constStores.get(index.getConstant());
+        } else if (index.isNAC()) {
+            matched = definedStores;
+        } else {
+            return List.of();
+        }
+        // walk the (small) aliased set instead of copying the
+        // program-wide buckets
+        List<StoreArray> result = new ArrayList<>();
+        for (int i = aliased.nextSetBit(0); i >= 0; i = aliased.nextSetBit(i + 1)) {
+            if ((matched != null && matched.get(i))
+                    || (index.isConstant() && nacStores.get(i))) {
+                result.add(stores.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the loads whose array base may alias the one of {@code store},
+     * regardless of index. These are the loads to revisit when the value
+     * or the index class of {@code store} changes.
+     */
+    public List<LoadArray> getAliasedLoads(StoreArray store) {
+        return aliasedLoads.getOrDefault(store, List.of());
+    }
+}
@@ -25,10 +25,12 @@ package pascal.taie.analysis.dataflow.inter;
 import pascal.taie.World;
 import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
 import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.fact.DataflowResult;
 import pascal.taie.analysis.graph.cfg.CFG;
 import pascal.taie.analysis.graph.cfg.CFGBuilder;
 import pascal.taie.analysis.graph.icfg.CallEdge;
 import pascal.taie.analysis.graph.icfg.CallToReturnEdge;
+import pascal.taie.analysis.graph.icfg.ICFGBuilder;
 import pascal.taie.analysis.graph.icfg.NormalEdge;
 import pascal.taie.analysis.graph.icfg.ReturnEdge;
 import pascal.taie.analysis.pta.PointerAnalysisResult;
@@ -48,8 +50,24 @@ public class InterConstantPropagation extends
 
     public static final String ID = "inter-constprop";
 
+    private static final String SPARSE_SOLVER = "sparse";
+
     private final ConstantPropagation cp;
 
+    private PointerAnalysisResult pta;
+
+    /**
+     * Alias index over field accesses, built on first use
+     * by {@link #getAliasIndex()}.
+     */
+    private AliasIndex aliasIndex;
+
+    /**
+     * Alias index over array accesses, built on first use
+     * by {@link #getArrayAliasIndex()}.
+     */
+    private ArrayAliasIndex arrayAliasIndex;
+
     public InterConstantPropagation(AnalysisConfig config) {
         super(config);
         cp = new ConstantPropagation(new AnalysisConfig(ConstantPropagation.ID));
@@ -58,10 +76,60 @@ public class InterConstantPropagation extends
     @Override
     protected void initialize() {
         String ptaId = getOptions().getString("pta");
-        PointerAnalysisResult pta = World.get().getResult(ptaId);
+        pta = World.get().getResult(ptaId);
         // You can do initialization work here
     }
 
+    /**
+     * @return the alias index over field accesses. The index is built
+     * when it is first requested, so runs whose transfer functions do
+     * not consult it do not pay for it.
+     */
+    protected AliasIndex getAliasIndex() {
+        if (aliasIndex == null) {
+            aliasIndex = new AliasIndex(pta);
+        }
+        return aliasIndex;
+    }
+
+    /**
+     * @return the alias index over array accesses, built when it is
+     * first requested. A transfer function that queries it must also
+     * record the index of every {@code StoreArray} it visits via
+     * {@link ArrayAliasIndex#updateIndex}.
+     */
+    protected ArrayAliasIndex getArrayAliasIndex() {
+        if (arrayAliasIndex == null) {
+            arrayAliasIndex = new ArrayAliasIndex(pta);
+        }
+        return arrayAliasIndex;
+    }
+
+    /**
+     * If option {@code solver} is {@code sparse}, the analysis is solved by
+     * {@link SparseConstantPropagation}, which computes the facts of
+     * the statements of each method densely and propagates the values of
+     * heap locations, arguments and returned values sparsely.
+     * Otherwise, the analysis is solved on the ICFG.
+     */
+    @Override
+    public Object analyze() {
+        if (!SPARSE_SOLVER.equals(getOptions().getString("solver"))) {
+            return super.analyze();
+        }
+        icfg = World.get().getResult(ICFGBuilder.ID);
+        initialize();
+        SparseConstantPropagation sparseCP = new SparseConstantPropagation(
+                pta, getAliasIndex(), getArrayAliasIndex());
+        sparseCP.solve();
+        DataflowResult<Stmt, CPFact> result = new DataflowResult<>();
+        for (Stmt stmt : icfg) {
+            result.setInFact(stmt, sparseCP.getInFact(stmt));
+            result.setOutFact(stmt, sparseCP.getOutFact(stmt));
+        }
+        return result;
+    }
+
     @Override
     public boolean isForward() {
         return cp.isForward();
@@ -0,0 +1,394 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.ConstantPropagation;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.graph.callgraph.CallGraph;
+import pascal.taie.analysis.graph.cfg.CFG;
+import pascal.taie.analysis.graph.cfg.CFGBuilder;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.IR;
+import pascal.taie.ir.exp.BinaryExp;
+import pascal.taie.ir.exp.IntLiteral;
+import pascal.taie.ir.exp.RValue;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.DefinitionStmt;
+import pascal.taie.ir.stmt.Invoke;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.Stmt;
+import pascal.taie.ir.stmt.StoreArray;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+import pascal.taie.language.classes.JMethod;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.SetQueue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Whole-program constant propagation that is dense for local variables
+ * and sparse for the heap, built from a pointer analysis result.
+ * <p>
+ * Local variables are not in SSA form in Tai-e IR, thus they are tracked
+ * flow-sensitively: every statement has its own IN and OUT {@link CPFact},
+ * computed by an intra-procedural fixpoint over the CFG of its method.
+ * <p>
+ * The heap is not carried in the facts. A field load reads the meet of the
+ * values written by the stores that may write the same location, as given
+ * by {@link AliasIndex} (every store is a weak update, since an abstract
+ * object may represent many concrete ones). Likewise, an array load reads
+ * the meet of the values written by the stores whose array may be the same
+ * and whose index may be equal, as given by {@link ArrayAliasIndex}.
+ * Likewise, the parameters of a method hold the
+ * meet of the arguments of all its call sites, and a call site receives
+ * the meet of the returned values of its callees. When a stored value,
+ * the parameters or the returned value of a method change, only the
+ * methods that read them are solved again.
+ */
+public class SparseConstantPropagation {
+
+    private final CallGraph<Invoke, JMethod> callGraph;
+
+    private final AliasIndex aliasIndex;
+
+    private final ArrayAliasIndex arrayAliasIndex;
+
+    /**
+     * Values written by field and array stores.
+     */
+    private final Map<Stmt, Value> storeValues = Maps.newMap();
+
+    /**
+     * Containing methods of field and array loads.
+     */
+    private final Map<Stmt, JMethod> loadContainers = Maps.newMap();
+
+    /**
+     * Values of the parameters of each method.
+     */
+    private final Map<JMethod, CPFact> paramValues = Maps.newMap();
+
+    /**
+     * Meet of the returned values of each method.
+     */
+    private final Map<JMethod, Value> returnValues = Maps.newMap();
+
+    private final Map<Stmt, CPFact> inFacts = Maps.newMap();
+
+    private final Map<Stmt, CPFact> outFacts = Maps.newMap();
+
+    private final Queue<JMethod> workList = new SetQueue<>();
+
+    public SparseConstantPropagation(PointerAnalysisResult pta,
+                                     AliasIndex aliasIndex,
+                                     ArrayAliasIndex arrayAliasIndex) {
+        this.callGraph = pta.getCallGraph();
+        this.aliasIndex = aliasIndex;
+        this.arrayAliasIndex = arrayAliasIndex;
+    }
+
+    public void solve() {
+        callGraph.entryMethods().forEach(m -> {
+            CPFact params = getParamValues(m);
+            m.getIR().getParams().forEach(param -> {
+                if (ConstantPropagation.canHoldInt(param)) {
+                    params.update(param, Value.getNAC());
+                }
+            });
+        });
+        callGraph.reachableMethods().forEach(m -> {
+            addLoads(m);
+            workList.add(m);
+        });
+        while (!workList.isEmpty()) {
+            JMethod method = workList.poll();
+            CFG<Stmt> cfg = method.getIR().getResult(CFGBuilder.ID);
+            solveLocals(cfg);
+            propagate(cfg);
+        }
+    }
+
+    private void addLoads(JMethod method) {
+        method.getIR().forEach(stmt -> {
+            if (stmt instanceof LoadField || stmt instanceof LoadArray) {
+                loadContainers.put(stmt, method);
+            }
+        });
+    }
+
+    private CPFact getParamValues(JMethod method) {
+        return paramValues.computeIfAbsent(method, __ -> new CPFact());
+    }
+
+    /**
+     * Computes the IN and OUT facts of the statements of given CFG
+     * under the current values of the parameters, stores
+     * and callees' returned values.
+     */
+    private void solveLocals(CFG<Stmt> cfg) {
+        Queue<Stmt> nodes = new SetQueue<>();
+        cfg.forEach(nodes::add);
+        while (!nodes.isEmpty()) {
+            Stmt node = nodes.poll();
+            CPFact in;
+            if (cfg.isEntry(node)) {
+                in = getParamValues(cfg.getMethod()).copy();
+            } else {
+                in = new CPFact();
+                cfg.getPredsOf(node).forEach(pred -> {
+                    CPFact predOut = getOutFactTo(pred);
+                    if (predOut != null) {
+                        predOut.forEach((var, value) ->
+                                in.update(var, meet(in.get(var), value)));
+                    }
+                });
+            }
+            CPFact out = transfer(node, in);
+            inFacts.put(node, in);
+            if (!out.equals(outFacts.get(node))) {
+                outFacts.put(node, out);
+                nodes.addAll(cfg.getSuccsOf(node));
+            }
+        }
+    }
+
+    /**
+     * @return the fact that flows from given node to its successors.
+     * As on the ICFG, the result of a call site is not defined by the
+     * call site itself, but flows from the returned values of the callees
+     * to the successors of the call site.
+     */
+    private CPFact getOutFactTo(Stmt node) {
+        CPFact out = outFacts.get(node);
+        if (out != null && node instanceof Invoke invoke) {
+            Var result = invoke.getResult();
+            if (result != null && ConstantPropagation.canHoldInt(result)) {
+                out = out.copy();
+                out.update(result, getReturnValue(invoke));
+            }
+        }
+        return out;
+    }
+
+    private CPFact transfer(Stmt stmt, CPFact in) {
+        CPFact out = in.copy();
+        if (stmt instanceof Invoke) {
+            // the result of the call is defined in getOutFactTo()
+        } else if (stmt instanceof LoadField load) {
+            Var lvalue = load.getLValue();
+            if (ConstantPropagation.canHoldInt(lvalue)) {
+                out.update(lvalue, loadField(load));
+            }
+        } else if (stmt instanceof LoadArray load) {
+            Var lvalue = load.getLValue();
+            if (ConstantPropagation.canHoldInt(lvalue)) {
+                out.update(lvalue, loadArray(load, in));
+            }
+        } else if (stmt instanceof DefinitionStmt<?, ?> def &&
+                def.getLValue() instanceof Var lvalue &&
+                ConstantPropagation.canHoldInt(lvalue)) {
+            out.update(lvalue, evaluate(def.getRValue(), in));
+        }
+        return out;
+    }
+
+    private Value getReturnValue(Invoke invoke) {
+        Value value = Value.getUndef();
+        for (JMethod callee : callGraph.getCalleesOf(invoke)) {
+            value = meet(value, returnValues.getOrDefault(callee, Value.getUndef()));
+        }
+        return value;
+    }
+
+    private Value evaluate(RValue rvalue, CPFact in) {
+        if (rvalue instanceof IntLiteral literal) {
+            return Value.makeConstant(literal.getValue());
+        } else if (rvalue instanceof Var var) {
+            return ConstantPropagation.canHoldInt(var) ?
+                    in.get(var) : Value.getNAC();
+        } else if (rvalue instanceof BinaryExp binary) {
+            return ConstantPropagation.evaluate(binary, in);
+        } else {
+            return Value.getNAC();
+        }
+    }
+
+    /**
+     * Propagates the values flowing out of given CFG, i.e., the values
+     * written to the heap, passed to callees and returned to callers,
+     * and enqueues the methods that read the changed values.
+     */
+    private void propagate(CFG<Stmt> cfg) {
+        JMethod method = cfg.getMethod();
+        for (Stmt stmt : cfg) {
+            CPFact in = inFacts.get(stmt);
+            if (stmt instanceof StoreField store) {
+                Var rvalue = store.getRValue();
+                if (ConstantPropagation.canHoldInt(rvalue) &&
+                        updateStore(store, in.get(rvalue))) {
+                    aliasIndex.getAliasedLoads(store).forEach(this::revisit);
+                }
+            } else if (stmt instanceof StoreArray store) {
+                Var rvalue = store.getRValue();
+                if (ConstantPropagation.canHoldInt(rvalue)) {
+                    // the loads that match the store change with its index
+                    boolean changed = arrayAliasIndex.updateIndex(store, in);
+                    changed |= updateStore(store, in.get(rvalue));
+                    if (changed) {
+                        arrayAliasIndex.getAliasedLoads(store).forEach(this::revisit);
+                    }
+                }
+            } else if (stmt instanceof Invoke invoke) {
+                passArgs(invoke, in);
+            }
+        }
+        // as on the ICFG, the returned value is the meet of
+        // the return variables at the exit of the method
+        Value returnValue = Value.getUndef();
+        CPFact exitFact = inFacts.get(cfg.getExit());
+        if (exitFact != null) {
+            for (Var var : method.getIR().getReturnVars()) {
+                if (ConstantPropagation.canHoldInt(var)) {
+                    returnValue = meet(returnValue, exitFact.get(var));
+                }
+            }
+        }
+        Value oldValue = returnValues.getOrDefault(method, Value.getUndef());
+        if (!returnValue.equals(oldValue)) {
+            returnValues.put(method, returnValue);
+            callGraph.getCallersOf(method).forEach(callSite ->
+                    workList.add(callGraph.getContainerOf(callSite)));
+        }
+    }
+
+    private void passArgs(Invoke invoke, CPFact in) {
+        List<Var> args = invoke.getInvokeExp().getArgs();
+        for (JMethod callee : callGraph.getCalleesOf(invoke)) {
+            IR ir = callee.getIR();
+            List<Var> params = ir.getParams();
+            CPFact values = getParamValues(callee);
+            boolean changed = false;
+            for (int i = 0; i < params.size(); ++i) {
+                Var param = params.get(i);
+                if (ConstantPropagation.canHoldInt(param)) {
+                    Var arg = args.get(i);
+                    Value value = ConstantPropagation.canHoldInt(arg) ?
+                            in.get(arg) : Value.getNAC();
+                    changed |= values.update(param, meet(values.get(param), value));
+                }
+            }
+            if (changed) {
+                workList.add(callee);
+            }
+        }
+    }
+
+    /**
+     * @return the meet of the values written by the stores that may
+     * write the location read by given load.
+     */
+    private Value loadField(LoadField load) {
+        return meetStores(aliasIndex.getAliasedStores(load));
+    }
+
+    /**
+     * @return the meet of the values written by the stores that may
+     * write the element read by given load under its IN fact.
+     */
+    private Value loadArray(LoadArray load, CPFact in) {
+        return meetStores(arrayAliasIndex.getAliasedStores(load, in));
+    }
+
+    private Value meetStores(List<? extends Stmt> stores) {
+        Value value = Value.getUndef();
+        for (Stmt store : stores) {
+            value = meet(value, storeValues.getOrDefault(store, Value.getUndef()));
+        }
+        return value;
+    }
+
+    /**
+     * Meets given value into the value written by given store.
+     *
+     * @return true if the value written by the store changed.
+     */
+    private boolean updateStore(Stmt store, Value value) {
+        Value oldValue = storeValues.getOrDefault(store, Value.getUndef());
+        Value newValue = meet(oldValue, value);
+        if (!newValue.equals(oldValue)) {
+            storeValues.put(store, newValue);
+            return true;
+        }
+        return false;
+    }
+
+    private void revisit(Stmt load) {
+        workList.add(loadContainers.get(load));
+    }
+
+    private static Value meet(Value v1, Value v2) {
+        if (v1.isUndef()) {
+            return v2;
+        } else if (v2.isUndef()) {
+            return v1;
+        } else if (v1.equals(v2)) {
+            return v1;
+        } else {
+            return Value.getNAC();
+        }
+    }
+
+    /**
+     * @return the IN fact of given statement.
+     */
+    public CPFact getInFact(Stmt stmt) {
+        return inFacts.get(stmt);
+    }
+
+    /**
+     * @return the OUT fact of given statement.
+     */
+    public CPFact getOutFact(Stmt stmt) {
+        return outFacts.get(stmt);
+    }
+
+    /**
+     * @return the value of field {@code field} of object {@code obj}.
+     */
+    public Value getValue(Obj obj, JField field) {
+        return meetStores(aliasIndex.getStores(obj, field));
+    }
+
+    /**
+     * @return the value of static field {@code field}.
+     */
+    public Value getValue(JField field) {
+        return meetStores(aliasIndex.getStores(null, field));
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.analysis.pta.core.heap.Obj;
+import pascal.taie.ir.exp.FieldAccess;
+import pascal.taie.ir.exp.InstanceFieldAccess;
+import pascal.taie.ir.stmt.FieldStmt;
+import pascal.taie.ir.stmt.LoadField;
+import pascal.taie.ir.stmt.StoreField;
+import pascal.taie.language.classes.JField;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+public class AliasIndexTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
+
+    /**
+     * Runs pointer analysis on given input, and checks the alias index
+     * against the points-to sets: a load and a store are aliased iff
+     * they access the same field and, for instance fields,
+     * their bases may point to a common object.
+     */
+    private static void test(String main) {
+        Tests.analyze(main, CLASS_PATH, "cspta", "cs:2-obj");
+        PointerAnalysisResult pta = World.get().getResult("cspta");
+        AliasIndex index = new AliasIndex(pta);
+        List<StoreField> stores = new ArrayList<>();
+        List<LoadField> loads = new ArrayList<>();
+        pta.getCallGraph().reachableMethods().forEach(m ->
+                m.getIR().forEach(stmt -> {
+                    if (stmt instanceof StoreField store) {
+                        stores.add(store);
+                    } else if (stmt instanceof LoadField load) {
+                        loads.add(load);
+                    }
+                }));
+        Assert.assertFalse(loads.isEmpty());
+        for (LoadField load : loads) {
+            List<StoreField> aliased = index.getAliasedStores(load);
+            Assert.assertEquals(aliased.size(), index.getNumberOfAliasedStores(load));
+            for (StoreField store : stores) {
+                boolean isAlias = isAlias(pta, load, store);
+                Assert.assertEquals(load + " ~ " + store,
+                        isAlias, aliased.contains(store));
+                Assert.assertEquals(isAlias,
+                        index.getAliasedLoads(store).contains(load));
+            }
+        }
+        for (StoreField store : stores) {
+            JField field = store.getFieldRef().resolve();
+            for (Obj obj : basesOf(pta, store)) {
+                Assert.assertTrue(index.getStores(obj, field).contains(store));
+            }
+        }
+        for (LoadField load : loads) {
+            JField field = load.getFieldRef().resolve();
+            for (Obj obj : basesOf(pta, load)) {
+                Assert.assertTrue(index.getLoads(obj, field).contains(load));
+            }
+        }
+    }
+
+    private static boolean isAlias(PointerAnalysisResult pta,
+                                   LoadField load, StoreField store) {
+        if (!load.getFieldRef().resolve().equals(store.getFieldRef().resolve())) {
+            return false;
+        }
+        return load.isStatic() ||
+                !Collections.disjoint(basesOf(pta, load), basesOf(pta, store));
+    }
+
+    /**
+     * @return the objects pointed to by the base of given field access,
+     * or a singleton of {@code null} for static field accesses.
+     */
+    private static Set<Obj> basesOf(PointerAnalysisResult pta, FieldStmt<?, ?> stmt) {
+        FieldAccess access = stmt.getFieldAccess();
+        if (access instanceof InstanceFieldAccess instanceAccess) {
+            return pta.getPointsToSet(instanceAccess.getBase());
+        } else {
+            return Collections.singleton(null);
+        }
+    }
+
+    @Test
+    public void testInstanceField() {
+        test("InstanceField");
+    }
+
+    @Test
+    public void testMultiStores() {
+        test("MultiStores");
+    }
+
+    @Test
+    public void testInterprocedural2() {
+        test("Interprocedural2");
+    }
+
+    @Test
+    public void testObjSens() {
+        test("ObjSens");
+    }
+
+    @Test
+    public void testStaticField() {
+        test("StaticField");
+    }
+
+    @Test
+    public void testStaticFieldMultiStores() {
+        test("StaticFieldMultiStores");
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Tai-e: A Static Analysis Framework for Java
+ *
+ * Copyright (C) 2022 Tian Tan <tiantan@nju.edu.cn>
+ * Copyright (C) 2022 Yue Li <yueli@nju.edu.cn>
+ *
+ * This file is part of Tai-e.
+ *
+ * Tai-e is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ *
+ * Tai-e is distributed in the hope that it will be useful,but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+ * or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with Tai-e. If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package pascal.taie.analysis.dataflow.inter;
+
+import org.junit.Assert;
+import org.junit.Test;
+import pascal.taie.World;
+import pascal.taie.analysis.Tests;
+import pascal.taie.analysis.dataflow.analysis.constprop.CPFact;
+import pascal.taie.analysis.dataflow.analysis.constprop.Value;
+import pascal.taie.analysis.pta.PointerAnalysisResult;
+import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.stmt.LoadArray;
+import pascal.taie.ir.stmt.StoreArray;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ArrayAliasIndexTest {
+
+    private static final String CLASS_PATH = "src/test/resources/dataflow/constprop/alias";
+
+    private static final List<Value> INDEXES = List.of(Value.getUndef(),
+            Value.makeConstant(0), Value.makeConstant(1), Value.getNAC());
+
+    /**
+     * Runs pointer analysis on given input, and checks the array alias
+     * index against the points-to sets and the index values: a load
+     * matches a store iff their arrays may be the same object and their
+     * indexes may be equal, i.e., neither is UNDEF, and either one is NAC
+     * or both are the same constant.
+     */
+    private static void test(String main) {
+        Tests.analyze(main, CLASS_PATH, "cspta", "cs:2-obj");
+        PointerAnalysisResult pta = World.get().getResult("cspta");
+        ArrayAliasIndex index = new ArrayAliasIndex(pta);
+        List<StoreArray> stores = new ArrayList<>();
+        List<LoadArray> loads = new ArrayList<>();
+        pta.getCallGraph().reachableMethods().forEach(m ->
+                m.getIR().forEach(stmt -> {
+                    if (stmt instanceof StoreArray store) {
+                        stores.add(store);
+                    } else if (stmt instanceof LoadArray load) {
+                        loads.add(load);
+                    }
+                }));
+        Assert.assertFalse(loads.isEmpty());
+        for (LoadArray load : loads) {
+            for (StoreArray store : stores) {
+                boolean isAlias = !Collections.disjoint(
+                        pta.getPointsToSet(load.getArrayAccess().getBase()),
+                        pta.getPointsToSet(store.getArrayAccess().getBase()));
+                Assert.assertEquals(isAlias,
+                        index.getAliasedLoads(store).contains(load));
+                for (Value storeIndex : INDEXES) {
+                    index.updateIndex(store,
+                            factOf(store.getArrayAccess().getIndex(), storeIndex));
+                    for (Value loadIndex : INDEXES) {
+                        List<StoreArray> aliased = index.getAliasedStores(load,
+                                factOf(load.getArrayAccess().getIndex(), loadIndex));
+                        Assert.assertEquals(load + " ~ " + store +
+                                        " with indexes " + loadIndex + ", " + storeIndex,
+                                isAlias && mayEqual(loadIndex, storeIndex),
+                                aliased.contains(store));
+                    }
+                }
+            }
+        }
+    }
+
+    private static CPFact factOf(Var var, Value value) {
+        CPFact fact = new CPFact();
+        fact.update(var, value);
+        return fact;
+    }
+
+    private static boolean mayEqual(Value i1, Value i2) {
+        if (i1.isUndef() || i2.isUndef()) {
+            return false;
+        }
+        return i1.isNAC() || i2.isNAC() || i1.equals(i2);
+    }
+
+    @Test
+    public void testArray() {
+        test("Array");
+    }
+
+    @Test
+    public void testArrayInter2() {
+        test("ArrayInter2");
+    }
+
+    @Test
+    public void testArrayLoops() {
+        test("ArrayLoops");
+    }
+}
@@ -51,6 +51,7 @@ import pascal.taie.analysis.pta.pts.PointsToSetFactory;
 import pascal.taie.config.AnalysisOptions;
 import pascal.taie.ir.exp.InvokeExp;
 import pascal.taie.ir.exp.Var;
+import pascal.taie.ir.proginfo.MethodRef;
 import pascal.taie.ir.stmt.Copy;
 import pascal.taie.ir.stmt.Invoke;
 import pascal.taie.ir.stmt.LoadArray;
@@ -62,6 +63,10 @@ import pascal.taie.ir.stmt.StoreField;
 import pascal.taie.language.classes.JField;
 import pascal.taie.language.classes.JMethod;
 import pascal.taie.language.type.Type;
+import pascal.taie.util.collection.Maps;
+import pascal.taie.util.collection.TwoKeyMap;
+
+import java.util.Optional;
 
 public class Solver {
 
@@ -81,6 +86,14 @@ public class Solver {
 
     private WorkList workList;
 
+    /**
+     * Cache of the callees of virtual and interface calls, keyed by
+     * receiver type and method reference. Failed dispatches are cached
+     * as empty {@link Optional}s, as the map does not accept null values.
+     */
+    private final TwoKeyMap<Type, MethodRef, Optional<JMethod>> dispatchCache =
+            Maps.newTwoKeyMap();
+
     private TaintAnalysiss taintAnalysis;
 
     private PointerAnalysisResult result;
@@ -192,7 +205,16 @@ public class Solver {
      */
     private JMethod resolveCallee(CSObj recv, Invoke callSite) {
         Type type = recv != null ? recv.getObject().getType() : null;
-        return CallGraphs.resolveCallee(type, callSite);
+        if (type == null || !(callSite.isVirtual() || callSite.isInterface())) {
+            return CallGraphs.resolveCallee(type, callSite);
+        }
+        MethodRef methodRef = callSite.getMethodRef();
+        Optional<JMethod> cached = dispatchCache.get(type, methodRef);
+        if (cached == null) {
+            cached = Optional.ofNullable(CallGraphs.resolveCallee(type, callSite));
+            dispatchCache.put(type, methodRef, cached);
+        }
+        return cached.orElse(null);
     }
 
     public PointerAnalysisResult getResult() {